@@ -0,0 +1,68 @@
+package com.plateforme.educational.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools de threads partagés par les services
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Pool dédié à l'écriture des pièces jointes (I/O disque, un fichier par tâche)
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService uploadExecutor(
+            @Value("${file.upload.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors() * 2;
+        return Executors.newFixedThreadPool(threads, namedDaemonThreads("upload-"));
+    }
+
+    /**
+     * Pool dédié au remplissage des réserves de questions, hors du chemin des requêtes
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService questionPoolExecutor(
+            @Value("${quiz.pool.refill-threads:1}") int threads) {
+        return Executors.newFixedThreadPool(Math.max(1, threads), namedDaemonThreads("question-pool-"));
+    }
+
+    /**
+     * Pool de la génération de quiz en flux (SSE) : une tâche par quiz, bloquée sur le modèle
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService quizStreamExecutor(
+            @Value("${quiz.stream.threads:8}") int threads) {
+        return Executors.newFixedThreadPool(Math.max(1, threads), namedDaemonThreads("quiz-stream-"));
+    }
+
+    /**
+     * Pool des appels complets au modèle (requête initiale et doublon) : sans file d'attente,
+     * un appel refusé est exécuté par l'appelant, sans doublon
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService llmRequestExecutor(
+            @Value("${llm.hedge.threads:32}") int threads) {
+        return new ThreadPoolExecutor(0, Math.max(2, threads), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), namedDaemonThreads("llm-request-"));
+    }
+
+    static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.plateforme.educational.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Client HTTP partagé par les clients de modèles de langage
+ * Une seule instance : ses connexions (multiplexées en HTTP/2) sont réutilisées d'un appel à l'autre.
+ */
+@Configuration
+public class LLMClientConfig {
+
+    @Bean
+    public HttpClient llmHttpClient(@Value("${llm.connect-timeout-ms:2000}") long connectTimeoutMs) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+}
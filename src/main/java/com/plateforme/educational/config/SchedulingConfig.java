@@ -0,0 +1,12 @@
+package com.plateforme.educational.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (nettoyage des fichiers orphelins, etc.)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -147,7 +147,8 @@ public class AdminController {
 
     @GetMapping("/courses/{courseId}/files/{fileId}")
     public ResponseEntity<Resource> downloadCourseFile(@PathVariable Long courseId,
-                                                       @PathVariable Long fileId) {
+                                                       @PathVariable Long fileId,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         Course course = courseService.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
         var file = courseFileService.getFile(fileId);
@@ -156,11 +157,19 @@ public class AdminController {
             throw new RuntimeException("Fichier non rattaché à ce cours");
         }
 
-        Resource resource = courseFileService.loadAsResource(fileId);
-        return ResponseEntity.ok()
+        // Les fichiers stockés compressés sont envoyés tels quels si le client accepte gzip
+        boolean sendCompressed = courseFileService.canSendCompressed(file, acceptEncoding);
+        Resource resource = courseFileService.loadForDownload(file, sendCompressed);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getOriginalFilename() + "\"")
-                .header(HttpHeaders.CONTENT_TYPE, file.getContentType())
-                .body(resource);
+                .header(HttpHeaders.CONTENT_TYPE, file.getContentType());
+        if (file.isCompressed()) {
+            response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (sendCompressed) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(resource);
     }
 
     @GetMapping("/courses/{id}/index")
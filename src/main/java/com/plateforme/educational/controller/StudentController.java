@@ -6,15 +6,21 @@ import com.plateforme.educational.service.AIAgentService;
 import com.plateforme.educational.service.CourseFileService;
 import com.plateforme.educational.service.CourseService;
 import com.plateforme.educational.service.EvaluationService;
+import com.plateforme.educational.service.QuizStreamingService;
+import com.plateforme.educational.service.ServiceOverloadedException;
 import com.plateforme.educational.service.UserService;
+import com.plateforme.educational.util.Deadline;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.HashMap;
@@ -32,6 +38,18 @@ public class StudentController {
     private final QuizAttemptRepository quizAttemptRepository;
     private final EvaluationService evaluationService;
     private final CourseFileService courseFileService;
+    private final QuizStreamingService quizStreamingService;
+
+    // Échéances de la génération, comptées depuis l'arrivée de la requête
+    @Value("${quiz.generation.deadline-ms:20000}")
+    private long generationDeadlineMs;
+
+    @Value("${quiz.stream.deadline-ms:120000}")
+    private long streamDeadlineMs;
+
+    // Nombre maximal de questions par quiz demandé
+    @Value("${quiz.max-questions:50}")
+    private int maxQuestions;
 
     @GetMapping("/dashboard")
     public String dashboard(Model model, Authentication authentication) {
@@ -109,6 +127,7 @@ public class StudentController {
     @GetMapping("/courses/{courseId}/files/{fileId}")
     public ResponseEntity<Resource> downloadCourseFile(@PathVariable Long courseId,
                                                        @PathVariable Long fileId,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
                                                        Authentication authentication) {
         User student = userService.findByUsername(authentication.getName())
                 .orElseThrow(() -> new RuntimeException("Student not found"));
@@ -127,20 +146,31 @@ public class StudentController {
             throw new RuntimeException("File not associated with this course");
         }
         
-        Resource resource = courseFileService.loadAsResource(fileId);
-        return ResponseEntity.ok()
+        // Les fichiers stockés compressés sont envoyés tels quels si le client accepte gzip
+        boolean sendCompressed = courseFileService.canSendCompressed(file, acceptEncoding);
+        Resource resource = courseFileService.loadForDownload(file, sendCompressed);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getOriginalFilename() + "\"")
-                .header(HttpHeaders.CONTENT_TYPE, file.getContentType())
-                .body(resource);
+                .header(HttpHeaders.CONTENT_TYPE, file.getContentType());
+        if (file.isCompressed()) {
+            response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (sendCompressed) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(resource);
     }
 
     @PostMapping("/courses/{id}/generate-quiz")
     public String generateQuiz(@PathVariable Long id, 
                               @RequestParam(defaultValue = "BEGINNER") String difficulty,
                               @RequestParam(defaultValue = "10") int numQuestions,
+                              @RequestParam(required = false) Long seed,
                               Authentication authentication,
                               RedirectAttributes redirectAttributes) {
+        Deadline deadline = Deadline.after(generationDeadlineMs);
         try {
+            checkQuestionCount(numQuestions);
             User student = userService.findByUsername(authentication.getName())
                     .orElseThrow(() -> new RuntimeException("Student not found"));
             
@@ -152,18 +182,76 @@ public class StudentController {
             }
             
             // L'IA agentique génère le quiz avec le niveau choisi
-            QuizAttempt attempt = aiAgentService.generateCustomQuiz(student, course, difficulty, numQuestions);
+            QuizAttempt attempt = aiAgentService.generateCustomQuiz(student, course, difficulty, numQuestions, seed, deadline);
             
             redirectAttributes.addFlashAttribute("success", 
                     "Quiz " + difficulty + " généré avec " + numQuestions + " questions !");
             return "redirect:/student/quiz/" + attempt.getId();
             
+        } catch (ServiceOverloadedException e) {
+            // Surcharge : réponse 503 plutôt qu'une redirection
+            throw e;
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
             return "redirect:/student/courses/" + id;
         }
     }
 
+    /**
+     * Génération en flux : la tentative est créée vide et la page du quiz affiche les questions
+     * au fur et à mesure (SSE /quiz/{id}/stream)
+     */
+    @PostMapping("/courses/{id}/generate-quiz/stream")
+    public String generateQuizStreaming(@PathVariable Long id,
+                                        @RequestParam(defaultValue = "BEGINNER") String difficulty,
+                                        @RequestParam(defaultValue = "10") int numQuestions,
+                                        @RequestParam(required = false) Long seed,
+                                        Authentication authentication,
+                                        RedirectAttributes redirectAttributes) {
+        Deadline deadline = Deadline.after(streamDeadlineMs);
+        try {
+            checkQuestionCount(numQuestions);
+            User student = userService.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("Student not found"));
+            
+            Course course = courseService.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Course not found"));
+            
+            if (!course.isIndexed()) {
+                throw new RuntimeException("Ce cours n'a pas encore été indexé");
+            }
+            
+            QuizAttempt attempt = quizStreamingService.start(student, course, difficulty, numQuestions, seed, deadline);
+            return "redirect:/student/quiz/" + attempt.getId();
+            
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/student/courses/" + id;
+        }
+    }
+
+    private void checkQuestionCount(int numQuestions) {
+        if (numQuestions < 1 || numQuestions > maxQuestions) {
+            throw new RuntimeException("Le nombre de questions doit être compris entre 1 et " + maxQuestions);
+        }
+    }
+
+    @GetMapping(path = "/quiz/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamQuiz(@PathVariable Long id, Authentication authentication) {
+        User student = userService.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("Student not found"));
+        
+        QuizAttempt attempt = quizAttemptRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+        
+        if (!attempt.getStudent().getId().equals(student.getId())) {
+            throw new RuntimeException("This quiz doesn't belong to you");
+        }
+        
+        return quizStreamingService.subscribe(attempt);
+    }
+
     @GetMapping("/quiz/{id}")
     public String takeQuiz(@PathVariable Long id, 
                           Model model, 
@@ -182,6 +270,7 @@ public class StudentController {
         model.addAttribute("attempt", attempt);
         model.addAttribute("course", attempt.getCourse());
         model.addAttribute("questions", attempt.getQuestions());
+        model.addAttribute("generating", attempt.isGenerating());
         
         return "student/quiz";
     }
@@ -201,6 +290,11 @@ public class StudentController {
             throw new RuntimeException("This quiz doesn't belong to you");
         }
         
+        if (attempt.isGenerating()) {
+            redirectAttributes.addFlashAttribute("error", "Le quiz est encore en cours de génération");
+            return "redirect:/student/quiz/" + id;
+        }
+        
         // Traiter les réponses
         for (QuizQuestion question : attempt.getQuestions()) {
             String answerKey = "question_" + question.getId();
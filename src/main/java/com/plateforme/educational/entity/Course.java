@@ -41,6 +41,10 @@ public class Course {
     @Column(nullable = false)
     private boolean indexed = false;
 
+    // Version du moteur d'extraction ayant produit les concepts et faits stockés (null : à reconstruire)
+    @Column
+    private Integer knowledgeVersion;
+
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
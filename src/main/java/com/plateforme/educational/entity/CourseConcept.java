@@ -0,0 +1,49 @@
+package com.plateforme.educational.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Concept (terme + définition) extrait d'un cours lors de son indexation
+ */
+@Entity
+@Table(name = "course_concepts", indexes = @Index(name = "idx_course_concepts_course", columnList = "course_id, concept_index"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(exclude = {"course"})
+@ToString(exclude = {"course"})
+public class CourseConcept {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "course_id", nullable = false)
+    private Course course;
+
+    // Ordre d'extraction dans le contenu du cours
+    @Column(nullable = false)
+    private Integer conceptIndex;
+
+    @Column(nullable = false)
+    private String term;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String definition;
+
+    @Column(columnDefinition = "TEXT")
+    private String context;
+
+    @Column
+    private String source;
+
+    // Concepts les plus proches (conceptIndex séparés par des virgules), servant de distracteurs
+    @Column
+    private String neighbours;
+}
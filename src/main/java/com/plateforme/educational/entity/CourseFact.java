@@ -0,0 +1,40 @@
+package com.plateforme.educational.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Phrase informative extraite d'un cours lors de son indexation
+ */
+@Entity
+@Table(name = "course_facts", indexes = @Index(name = "idx_course_facts_course", columnList = "course_id, fact_index"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(exclude = {"course"})
+@ToString(exclude = {"course"})
+public class CourseFact {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "course_id", nullable = false)
+    private Course course;
+
+    // Ordre d'apparition dans le contenu du cours
+    @Column(nullable = false)
+    private Integer factIndex;
+
+    @Column(nullable = false, length = 1000)
+    private String text;
+
+    // Concept cité dans la phrase (conceptIndex), pour les distracteurs par substitution de terme
+    @Column
+    private Integer conceptIndex;
+}
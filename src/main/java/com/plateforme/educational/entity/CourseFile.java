@@ -29,16 +29,38 @@ public class CourseFile {
     @Column(nullable = false)
     private String contentType;
 
+    // Taille d'origine du fichier (avant compression éventuelle)
     @Column(nullable = false)
     private long size;
 
+    // Taille réellement occupée sur disque
+    @Column
+    private Long storedSize;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StorageCodec storageCodec = StorageCodec.IDENTITY;
+
     @Column(nullable = false)
     private String storagePath;
 
+    // Empreinte SHA-256 du contenu, calculée pendant l'écriture sur disque
+    @Column(length = 64)
+    private String contentHash;
+
     @Column(nullable = false)
     private LocalDateTime uploadedAt = LocalDateTime.now();
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "course_id")
     private Course course;
+
+    public boolean isCompressed() {
+        return storageCodec != null && storageCodec != StorageCodec.IDENTITY;
+    }
+
+    public enum StorageCodec {
+        IDENTITY,
+        GZIP
+    }
 }
@@ -0,0 +1,66 @@
+package com.plateforme.educational.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Question pré-générée, en réserve pour les quiz d'un cours à un niveau donné
+ * Une question (énoncé et bonne réponse) n'apparaît qu'une fois par réserve.
+ */
+@Entity
+@Table(name = "pooled_questions",
+       indexes = @Index(name = "idx_pooled_questions_course", columnList = "course_id, difficulty"),
+       uniqueConstraints = @UniqueConstraint(columnNames = {"course_id", "difficulty", "fingerprint"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(exclude = {"course"})
+@ToString(exclude = {"course"})
+public class PooledQuestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "course_id", nullable = false)
+    private Course course;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private QuizAttempt.DifficultyLevel difficulty;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String questionText;
+
+    @ElementCollection
+    @CollectionTable(name = "pooled_question_options", joinColumns = @JoinColumn(name = "question_id"))
+    @Column(name = "option_text", columnDefinition = "TEXT")
+    @OrderColumn(name = "option_order")
+    private List<String> options = new ArrayList<>();
+
+    @Column(nullable = false)
+    private Integer correctAnswerIndex;
+
+    @Column(columnDefinition = "TEXT")
+    private String explanation;
+
+    // Empreinte de l'énoncé et de la bonne réponse (QuestionFingerprint)
+    @Column(nullable = false)
+    private Long fingerprint;
+
+    // Nombre de quiz dans lesquels la question a été servie
+    @Column(nullable = false)
+    private Integer serveCount = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -61,6 +61,17 @@ public class QuizAttempt {
     @Column
     private String recommendedAction;
 
+    // Graine de génération : mêmes cours, niveau, nombre de questions et graine => même quiz
+    // Garanti pour une graine fournie par l'étudiant. Une graine tirée au hasard a pu servir à une
+    // génération regroupée avec d'autres (permutation du résultat d'un autre appel) : la rejouer
+    // peut alors donner un autre quiz.
+    @Column
+    private Long generationSeed;
+
+    // Questions encore en cours de génération (quiz diffusé en flux)
+    @Column(nullable = false)
+    private boolean generating = false;
+
     public enum DifficultyLevel {
         BEGINNER,
         INTERMEDIATE,
@@ -0,0 +1,47 @@
+package com.plateforme.educational.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Questions déjà servies à un étudiant pour un cours, sous forme d'empreintes
+ * (FingerprintSet sérialisé : tableau trié de longs, 8 octets par question)
+ */
+@Entity
+@Table(name = "student_question_history",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "course_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(exclude = {"student", "course"})
+@ToString(exclude = {"student", "course", "fingerprints"})
+public class StudentQuestionHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private User student;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "course_id", nullable = false)
+    private Course course;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] fingerprints = new byte[0];
+
+    @Column(nullable = false)
+    private Integer questionCount = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,61 @@
+package com.plateforme.educational.llm;
+
+/**
+ * Limite de concurrence adaptative (AIMD)
+ * Chaque appel rapide augmente la limite d'environ une unité par « fenêtre » (+1/limite), tant que
+ * la limite est effectivement utilisée ; un appel lent ou en échec la multiplie par backoff.
+ * Au-delà de la limite, l'appel est refusé immédiatement plutôt que mis en attente.
+ */
+final class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoff;
+
+    private double limit;
+    private int inFlight;
+
+    AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoff) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoff = backoff;
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+    }
+
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Libère la place et ajuste la limite selon le résultat de l'appel
+     */
+    synchronized void release(boolean withinTarget) {
+        // Mesuré avant la libération : la limite n'augmente que si elle était au moins à moitié utilisée
+        boolean saturated = inFlight * 2 >= (int) limit;
+        inFlight--;
+        if (!withinTarget) {
+            limit = Math.max(minLimit, limit * backoff);
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    /**
+     * Libère la place sans ajuster la limite (appel finalement non effectué)
+     */
+    synchronized void cancel() {
+        inFlight--;
+    }
+
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,175 @@
+package com.plateforme.educational.llm;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Comptage local des tokens d'un texte, compatible avec les tokenizers BPE des modèles (format tiktoken)
+ * Le vocabulaire (un token encodé en base64 et son rang par ligne, ex. cl100k_base.tiktoken) est lu au
+ * démarrage depuis llm.tokenizer.vocabulary ; par défaut, cl100k_base téléchargé à la construction (pom.xml). Le texte est découpé en mots par l'expression de
+ * pré-découpage du tokenizer, puis chaque mot est fusionné par paires selon les rangs ; le nombre
+ * de tokens de chaque mot est mémorisé, les mots courants ne sont donc calculés qu'une fois.
+ * Sans vocabulaire, le compte est estimé (un token pour 4 octets UTF-8 par mot, arrondi au-dessus) ;
+ * ce mode n'est admis qu'en génération locale : avec llm.provider, le démarrage échoue.
+ */
+@Component
+@Slf4j
+public class BpeTokenCounter {
+
+    // Pré-découpage de cl100k_base
+    private static final Pattern PRE_TOKENIZER = Pattern.compile(
+            "(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}{1,3}| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+");
+
+    private static final int MAX_CACHED_WORDS = 200_000;
+
+    @Value("${llm.tokenizer.vocabulary:classpath:tokenizer/cl100k_base.tiktoken}")
+    private Resource vocabulary;
+
+    @Value("${llm.provider:}")
+    private String provider;
+
+    // Séquence d'octets (une lettre ISO-8859-1 par octet) -> rang de fusion
+    private Map<String, Integer> ranks = Map.of();
+
+    private final Map<String, Integer> wordCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        if (!vocabulary.exists()) {
+            unavailable("absent", null);
+            return;
+        }
+        Map<String, Integer> loaded = new HashMap<>(128 * 1024);
+        Base64.Decoder decoder = Base64.getDecoder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(vocabulary.getInputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int space = line.indexOf(' ');
+                if (space <= 0) {
+                    continue;
+                }
+                byte[] token = decoder.decode(line.substring(0, space));
+                loaded.put(new String(token, StandardCharsets.ISO_8859_1), Integer.parseInt(line.substring(space + 1).trim()));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            unavailable("illisible", e);
+            return;
+        }
+        ranks = loaded;
+        log.info("Tokenizer BPE: {} tokens chargés depuis {}", loaded.size(), vocabulary.getDescription());
+    }
+
+    /**
+     * Vocabulaire inutilisable : refus de démarrer si un modèle est configuré (budget du prompt
+     * faussé), simple avertissement en génération locale
+     */
+    private void unavailable(String state, Exception cause) {
+        if (provider != null && !provider.isBlank()) {
+            throw new IllegalStateException("Vocabulaire du tokenizer " + state + " (" + vocabulary.getDescription()
+                    + ") : requis avec llm.provider=" + provider + ", voir llm.tokenizer.vocabulary", cause);
+        }
+        log.warn("Vocabulaire du tokenizer {} ({}) : nombre de tokens estimé", state, vocabulary.getDescription(), cause);
+    }
+
+    /**
+     * Vrai si le compte est exact (vocabulaire chargé), faux s'il est estimé
+     */
+    public boolean isExact() {
+        return !ranks.isEmpty();
+    }
+
+    public int count(CharSequence text) {
+        int tokens = 0;
+        Matcher matcher = PRE_TOKENIZER.matcher(text);
+        while (matcher.find()) {
+            String word = matcher.group();
+            Integer cached = wordCounts.get(word);
+            if (cached == null) {
+                cached = countWord(word);
+                if (wordCounts.size() >= MAX_CACHED_WORDS) {
+                    wordCounts.clear();
+                }
+                wordCounts.put(word, cached);
+            }
+            tokens += cached;
+        }
+        return tokens;
+    }
+
+    private int countWord(String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        if (ranks.isEmpty()) {
+            return (bytes.length + 3) / 4;
+        }
+        String piece = new String(bytes, StandardCharsets.ISO_8859_1);
+        if (ranks.containsKey(piece)) {
+            return 1;
+        }
+        return mergeCount(piece);
+    }
+
+    /**
+     * Fusion par paires (algorithme de tiktoken) : à chaque étape, la paire adjacente de plus petit
+     * rang est fusionnée ; le résultat est le nombre de parties restantes
+     */
+    private int mergeCount(String piece) {
+        int n = piece.length();
+        // Début de chaque partie, plus la fin du mot ; rank[i] : rang de la fusion des parties i et i+1
+        int[] starts = new int[n + 1];
+        int[] pairRanks = new int[n];
+        for (int i = 0; i <= n; i++) {
+            starts[i] = i;
+        }
+        int parts = n;
+        for (int i = 0; i + 1 < parts; i++) {
+            pairRanks[i] = rank(piece, starts[i], starts[i + 2]);
+        }
+        Arrays.fill(pairRanks, Math.max(0, parts - 1), n, Integer.MAX_VALUE);
+
+        while (parts > 1) {
+            int best = -1;
+            int bestRank = Integer.MAX_VALUE;
+            for (int i = 0; i + 1 < parts; i++) {
+                if (pairRanks[i] < bestRank) {
+                    bestRank = pairRanks[i];
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+
+            // Fusion des parties best et best+1 : la frontière best+1 disparaît
+            System.arraycopy(starts, best + 2, starts, best + 1, parts - best - 1);
+            System.arraycopy(pairRanks, best + 2, pairRanks, best + 1, Math.max(0, parts - best - 2));
+            parts--;
+            pairRanks[best] = best + 1 < parts ? rank(piece, starts[best], starts[best + 2]) : Integer.MAX_VALUE;
+            if (best > 0) {
+                pairRanks[best - 1] = rank(piece, starts[best - 1], starts[best + 1]);
+            }
+            pairRanks[parts - 1] = Integer.MAX_VALUE;
+        }
+        return parts;
+    }
+
+    private int rank(String piece, int start, int end) {
+        Integer rank = ranks.get(piece.substring(start, end));
+        return rank != null ? rank : Integer.MAX_VALUE;
+    }
+}
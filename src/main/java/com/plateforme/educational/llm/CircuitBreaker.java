@@ -0,0 +1,74 @@
+package com.plateforme.educational.llm;
+
+/**
+ * Disjoncteur : ouvert après failure-threshold échecs consécutifs, il refuse les appels pendant
+ * open-ms, puis laisse passer un seul appel d'essai (semi-ouvert) qui le referme ou le rouvre
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int failureThreshold, long openMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openMs * 1_000_000L;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Libère l'appel d'essai sans conclure (appel finalement non effectué)
+     */
+    synchronized void cancel() {
+        probeInFlight = false;
+    }
+
+    /**
+     * Vrai si un appel serait refusé maintenant ; ne consomme pas l'appel d'essai
+     */
+    synchronized boolean isOpen() {
+        return state == State.OPEN && System.nanoTime() - openedAt < openNanos
+                || state == State.HALF_OPEN && probeInFlight;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
@@ -0,0 +1,175 @@
+package com.plateforme.educational.llm;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.plateforme.educational.util.Deadline;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Base des clients HTTP/JSON : client HttpClient partagé (connexions HTTP/2 réutilisées),
+ * délai de lecture appliqué à la réponse complète, corps annulé s'il est dépassé.
+ * Ce délai est borné par l'échéance de la requête : le plus court des deux s'applique, et le
+ * dépassement est signalé comme TIMEOUT (délai de lecture) ou DEADLINE (échéance de la requête).
+ * En flux, la réponse est lue ligne par ligne (SSE ou JSON délimité par des sauts de ligne).
+ */
+abstract class HttpLLMClient implements LLMClient {
+
+    protected final Gson gson = new Gson();
+
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+
+    protected HttpLLMClient(HttpClient httpClient, long readTimeoutMs) {
+        this.httpClient = httpClient;
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+    }
+
+    protected JsonObject postJson(URI uri, JsonObject body, Map<String, String> headers, Deadline deadline) {
+        CallLimit limit = limit(uri, deadline);
+        Duration timeout = limit.timeout();
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(body)));
+        headers.forEach(request::header);
+
+        CompletableFuture<HttpResponse<String>> call =
+                httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response;
+        try {
+            response = call.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            throw new LLMException(limit.reason(), "Pas de réponse de " + uri.getHost() + " après " + timeout.toMillis() + " ms", e);
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LLMException(LLMException.Reason.CANCELLED, "Appel au modèle interrompu", e);
+        } catch (ExecutionException e) {
+            LLMException.Reason reason = e.getCause() instanceof HttpTimeoutException
+                    ? limit.reason() : LLMException.Reason.ERROR;
+            throw new LLMException(reason, "Appel à " + uri + " impossible: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        if (response.statusCode() / 100 != 2) {
+            throw new LLMException("Réponse HTTP " + response.statusCode() + " de " + uri + ": " + abbreviate(response.body()));
+        }
+        try {
+            return JsonParser.parseString(response.body()).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new LLMException("Réponse illisible de " + uri + ": " + abbreviate(response.body()), e);
+        }
+    }
+
+    /**
+     * Envoie la requête et transmet chaque ligne de la réponse dès sa réception
+     * Le délai de lecture s'applique à l'ensemble du flux : à son expiration, le corps est fermé
+     * depuis un autre thread, ce qui débloque une lecture en attente de la ligne suivante.
+     */
+    protected void postJsonLines(URI uri, JsonObject body, Map<String, String> headers, Deadline deadline,
+                                 Consumer<String> onLine) {
+        CallLimit limit = limit(uri, deadline);
+        Duration timeout = limit.timeout();
+        long expiresAt = System.nanoTime() + timeout.toNanos();
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(body)));
+        headers.forEach(request::header);
+
+        CompletableFuture<HttpResponse<Stream<String>>> call =
+                httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofLines());
+        HttpResponse<Stream<String>> response;
+        try {
+            response = call.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            throw new LLMException(limit.reason(), "Pas de réponse de " + uri.getHost() + " après " + timeout.toMillis() + " ms", e);
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LLMException(LLMException.Reason.CANCELLED, "Appel au modèle interrompu", e);
+        } catch (ExecutionException e) {
+            LLMException.Reason reason = e.getCause() instanceof HttpTimeoutException
+                    ? limit.reason() : LLMException.Reason.ERROR;
+            throw new LLMException(reason, "Appel à " + uri + " impossible: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        AtomicBoolean expired = new AtomicBoolean();
+        CompletableFuture<Void> watchdog = null;
+        try (Stream<String> lines = response.body()) {
+            watchdog = CompletableFuture.runAsync(() -> {
+                expired.set(true);
+                lines.close();
+            }, CompletableFuture.delayedExecutor(Math.max(0, expiresAt - System.nanoTime()), TimeUnit.NANOSECONDS));
+
+            if (response.statusCode() / 100 != 2) {
+                String error = lines.limit(20).collect(Collectors.joining("\n"));
+                throw new LLMException("Réponse HTTP " + response.statusCode() + " de " + uri + ": " + abbreviate(error));
+            }
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new LLMException(LLMException.Reason.CANCELLED, "Appel au modèle interrompu");
+                }
+                onLine.accept(iterator.next());
+            }
+            if (expired.get()) {
+                throw incomplete(uri, limit);
+            }
+        } catch (UncheckedIOException e) {
+            if (expired.get()) {
+                throw incomplete(uri, limit);
+            }
+            throw new LLMException("Flux interrompu par " + uri.getHost() + ": " + e.getMessage(), e);
+        } finally {
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+        }
+    }
+
+    private static LLMException incomplete(URI uri, CallLimit limit) {
+        return new LLMException(limit.reason(), "Réponse de " + uri.getHost() + " incomplète après " + limit.timeout().toMillis() + " ms");
+    }
+
+    /**
+     * Délai de l'appel et cause signalée s'il est dépassé
+     */
+    private record CallLimit(Duration timeout, LLMException.Reason reason) {}
+
+    /**
+     * Délai de l'appel : délai de lecture, borné par l'échéance de la requête
+     */
+    private CallLimit limit(URI uri, Deadline deadline) {
+        Duration timeout = deadline.cap(readTimeout);
+        if (timeout.isZero()) {
+            throw new LLMException(LLMException.Reason.DEADLINE, "Échéance de la requête dépassée avant l'appel à " + uri.getHost());
+        }
+        return new CallLimit(timeout, timeout.compareTo(readTimeout) < 0 ? LLMException.Reason.DEADLINE : LLMException.Reason.TIMEOUT);
+    }
+
+    protected static String abbreviate(String body) {
+        return body == null || body.length() <= 200 ? body : body.substring(0, 200) + "...";
+    }
+}
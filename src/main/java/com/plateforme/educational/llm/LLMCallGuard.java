@@ -0,0 +1,169 @@
+package com.plateforme.educational.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Protection des appels au modèle : limite de concurrence adaptative (AIMD) et disjoncteur
+ * Un appel refusé échoue immédiatement (LLMException OVERLOADED ou CIRCUIT_OPEN) au lieu
+ * d'immobiliser un thread : l'appelant se replie sur les générateurs locaux et le signale
+ * par recordFallback. Un appel plus lent que latency-slo-ms, même réussi, réduit la limite
+ * et compte comme un échec pour le disjoncteur ; un appel annulé (CANCELLED) n'est pas compté.
+ */
+@Component
+@Slf4j
+public class LLMCallGuard {
+
+    private final AimdLimiter limiter;
+    private final CircuitBreaker breaker;
+    private final long latencySloNanos;
+    private final MeterRegistry meterRegistry;
+
+    public LLMCallGuard(MeterRegistry meterRegistry,
+                        @Value("${llm.guard.latency-slo-ms:10000}") long latencySloMs,
+                        @Value("${llm.guard.initial-limit:8}") int initialLimit,
+                        @Value("${llm.guard.min-limit:1}") int minLimit,
+                        @Value("${llm.guard.max-limit:64}") int maxLimit,
+                        @Value("${llm.guard.backoff-ratio:0.7}") double backoffRatio,
+                        @Value("${llm.guard.failure-threshold:5}") int failureThreshold,
+                        @Value("${llm.guard.open-ms:30000}") long openMs) {
+        this.limiter = new AimdLimiter(initialLimit, minLimit, maxLimit, backoffRatio);
+        this.breaker = new CircuitBreaker(failureThreshold, openMs);
+        this.latencySloNanos = TimeUnit.MILLISECONDS.toNanos(latencySloMs);
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("llm.limiter.limit", limiter, AimdLimiter::limit)
+                .description("Appels simultanés autorisés vers le modèle")
+                .register(meterRegistry);
+        Gauge.builder("llm.limiter.in_flight", limiter, AimdLimiter::inFlight)
+                .description("Appels en cours vers le modèle")
+                .register(meterRegistry);
+        Gauge.builder("llm.circuit.open", breaker, b -> b.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 si le disjoncteur est ouvert ou semi-ouvert")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appel complet : la latence mesurée est celle de la réponse entière
+     */
+    public <T> T call(Supplier<T> call) {
+        acquire();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (LLMException e) {
+            settle(e, System.nanoTime() - start);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            abandon();
+            throw e;
+        }
+        release(System.nanoTime() - start, false);
+        return result;
+    }
+
+    /**
+     * Appel en flux : la latence mesurée est celle du premier fragment reçu
+     */
+    public void stream(Consumer<Consumer<String>> call, Consumer<String> onText) {
+        acquire();
+        long start = System.nanoTime();
+        long[] firstText = {0};
+        try {
+            call.accept(text -> {
+                if (firstText[0] == 0) {
+                    firstText[0] = System.nanoTime();
+                }
+                onText.accept(text);
+            });
+        } catch (LLMException e) {
+            settle(e, System.nanoTime() - start);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            // Erreur du consommateur, pas du modèle
+            abandon();
+            throw e;
+        }
+        release((firstText[0] != 0 ? firstText[0] : System.nanoTime()) - start, false);
+    }
+
+    /**
+     * Vrai si le disjoncteur refuserait un appel maintenant
+     */
+    public boolean isOpen() {
+        return breaker.isOpen();
+    }
+
+    /**
+     * Compte un repli sur la génération locale (métrique llm.fallback, étiquette reason)
+     */
+    public void recordFallback(String reason) {
+        Counter.builder("llm.fallback")
+                .description("Générations servies localement au lieu du modèle")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordFallback(LLMException e) {
+        recordFallback(e.getReason().name().toLowerCase());
+    }
+
+    private void acquire() {
+        if (!limiter.tryAcquire()) {
+            throw new LLMException(LLMException.Reason.OVERLOADED,
+                    "Limite de " + limiter.limit() + " appel(s) simultané(s) au modèle atteinte");
+        }
+        if (!breaker.tryAcquire()) {
+            limiter.cancel();
+            throw new LLMException(LLMException.Reason.CIRCUIT_OPEN, "Disjoncteur ouvert : modèle temporairement écarté");
+        }
+    }
+
+    private void release(long latencyNanos, boolean failed) {
+        boolean withinSlo = !failed && latencyNanos <= latencySloNanos;
+        limiter.release(withinSlo);
+        if (withinSlo) {
+            breaker.onSuccess();
+        } else {
+            CircuitBreaker.State before = breaker.state();
+            breaker.onFailure();
+            if (before != CircuitBreaker.State.OPEN && breaker.state() == CircuitBreaker.State.OPEN) {
+                log.warn("Disjoncteur du modèle ouvert ({} après {} ms)", failed ? "échec" : "appel lent",
+                        TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+            }
+        }
+        Timer.builder("llm.call.latency")
+                .description("Durée des appels au modèle (premier fragment en flux)")
+                .tag("outcome", failed ? "failed" : withinSlo ? "ok" : "slow")
+                .register(meterRegistry)
+                .record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Un appel annulé par l'appelant, ou arrêté par l'échéance de sa requête avant le délai de
+     * lecture, ne compte ni comme succès ni comme échec
+     */
+    private void settle(LLMException e, long latencyNanos) {
+        if (e.getReason() == LLMException.Reason.CANCELLED || e.getReason() == LLMException.Reason.DEADLINE) {
+            abandon();
+        } else {
+            release(latencyNanos, true);
+        }
+    }
+
+    private void abandon() {
+        limiter.cancel();
+        breaker.cancel();
+    }
+}
@@ -0,0 +1,34 @@
+package com.plateforme.educational.llm;
+
+import com.plateforme.educational.util.Deadline;
+
+import java.util.function.Consumer;
+
+/**
+ * Modèle de langage distant (API compatible OpenAI, Ollama...)
+ * Une seule implémentation est active, choisie par la propriété llm.provider ; sans fournisseur
+ * configuré, LLMService reste en mode simulé.
+ */
+public interface LLMClient {
+
+    /**
+     * Nom du modèle interrogé
+     */
+    String model();
+
+    /**
+     * Envoie le prompt et retourne le texte complet de la réponse
+     * La graine est transmise au modèle (réponses reproductibles si le fournisseur la prend en charge).
+     * Le délai de l'appel est borné par l'échéance de la requête ; un thread interrompu abandonne
+     * l'appel (LLMException CANCELLED).
+     */
+    String complete(String prompt, long seed, Deadline deadline);
+
+    /**
+     * Envoie le prompt et transmet le texte de la réponse au fil de sa génération
+     * Par défaut, la réponse complète est transmise en une fois.
+     */
+    default void stream(String prompt, long seed, Deadline deadline, Consumer<String> onText) {
+        onText.accept(complete(prompt, seed, deadline));
+    }
+}
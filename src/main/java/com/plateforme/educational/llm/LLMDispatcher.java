@@ -0,0 +1,236 @@
+package com.plateforme.educational.llm;
+
+import com.plateforme.educational.util.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Envoi des requêtes au modèle dans l'échéance de la requête HTTP d'origine
+ * - Nouvel essai après un échec réseau ou un délai dépassé (pas après un refus de LLMCallGuard),
+ *   avec une attente tirée au hasard entre 0 et base × 2^(essai-1) (« full jitter »), seulement
+ *   s'il reste assez de temps avant l'échéance.
+ * - Requête doublée : sans réponse après le quantile hedge.quantile des latences récentes, une
+ *   seconde requête identique est envoyée ; la première réponse l'emporte, l'autre est annulée.
+ *   Le doublon passe par LLMCallGuard comme tout appel : sous charge, il est simplement refusé.
+ * En flux, seul le nouvel essai s'applique, et uniquement tant qu'aucun fragment n'a été transmis.
+ */
+@Component
+@Slf4j
+public class LLMDispatcher {
+
+    private static final int LATENCY_SAMPLES = 256;
+
+    private final LLMCallGuard llmCallGuard;
+    private final ExecutorService llmRequestExecutor;
+    private final MeterRegistry meterRegistry;
+    private final LatencyWindow latencies = new LatencyWindow(LATENCY_SAMPLES);
+
+    private final int maxAttempts;
+    private final long retryBaseMs;
+    private final long retryMaxBackoffMs;
+    private final boolean hedgeEnabled;
+    private final double hedgeQuantile;
+    private final int hedgeMinSamples;
+    private final long hedgeMinDelayMs;
+
+    public LLMDispatcher(LLMCallGuard llmCallGuard,
+                         ExecutorService llmRequestExecutor,
+                         MeterRegistry meterRegistry,
+                         @Value("${llm.retry.max-attempts:3}") int maxAttempts,
+                         @Value("${llm.retry.base-ms:200}") long retryBaseMs,
+                         @Value("${llm.retry.max-backoff-ms:2000}") long retryMaxBackoffMs,
+                         @Value("${llm.hedge.enabled:true}") boolean hedgeEnabled,
+                         @Value("${llm.hedge.quantile:0.95}") double hedgeQuantile,
+                         @Value("${llm.hedge.min-samples:20}") int hedgeMinSamples,
+                         @Value("${llm.hedge.min-delay-ms:50}") long hedgeMinDelayMs) {
+        this.llmCallGuard = llmCallGuard;
+        this.llmRequestExecutor = llmRequestExecutor;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBaseMs = Math.max(1, retryBaseMs);
+        this.retryMaxBackoffMs = Math.max(this.retryBaseMs, retryMaxBackoffMs);
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeQuantile = hedgeQuantile;
+        this.hedgeMinSamples = Math.max(1, hedgeMinSamples);
+        this.hedgeMinDelayMs = hedgeMinDelayMs;
+
+        Gauge.builder("llm.hedge.delay", this, LLMDispatcher::hedgeDelayMillis)
+                .description("Attente avant l'envoi d'une requête doublée, en ms (-1 si inactif)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Réponse complète du modèle ; LLMException si tous les essais échouent ou si l'échéance est atteinte
+     */
+    public String complete(LLMClient client, String prompt, long seed, Deadline deadline) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return hedged(client, prompt, seed, deadline);
+            } catch (LLMException e) {
+                backoffBeforeRetry(e, attempt, deadline);
+            }
+        }
+    }
+
+    /**
+     * Réponse en flux ; un échec après le premier fragment est transmis tel quel
+     */
+    public void stream(LLMClient client, String prompt, long seed, Deadline deadline, Consumer<String> onText) {
+        boolean[] received = {false};
+        for (int attempt = 1; ; attempt++) {
+            try {
+                llmCallGuard.stream(sink -> client.stream(prompt, seed, deadline, sink), text -> {
+                    received[0] = true;
+                    onText.accept(text);
+                });
+                return;
+            } catch (LLMException e) {
+                if (received[0]) {
+                    throw e;
+                }
+                backoffBeforeRetry(e, attempt, deadline);
+            }
+        }
+    }
+
+    /**
+     * Attend avant un nouvel essai, ou relance l'exception s'il n'y en aura pas
+     */
+    private void backoffBeforeRetry(LLMException e, int attempt, Deadline deadline) {
+        long ceiling = Math.min(retryMaxBackoffMs, retryBaseMs << Math.min(attempt - 1, 20));
+        long backoff = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (attempt >= maxAttempts || !isRetryable(e) || deadline.remainingMillis() <= backoff) {
+            throw e;
+        }
+        log.debug("Appel au modèle en échec ({}), essai {}/{} dans {} ms", e.getMessage(), attempt + 1, maxAttempts, backoff);
+        Counter.builder("llm.retry")
+                .description("Nouveaux essais d'appel au modèle")
+                .tag("reason", e.getReason().name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new LLMException(LLMException.Reason.CANCELLED, "Nouvel essai interrompu", interrupted);
+        }
+    }
+
+    private static boolean isRetryable(LLMException e) {
+        return e.getReason() == LLMException.Reason.ERROR || e.getReason() == LLMException.Reason.TIMEOUT;
+    }
+
+    /**
+     * Un essai : la requête, et son doublon si elle tarde ; la requête perdante est interrompue
+     */
+    private String hedged(LLMClient client, String prompt, long seed, Deadline deadline) {
+        Supplier<String> call = () -> timed(() -> llmCallGuard.call(() -> client.complete(prompt, seed, deadline)));
+        long delay = hedgeDelayMillis();
+        if (delay < 0 || deadline.remainingMillis() <= delay) {
+            return call.get();
+        }
+
+        ExecutorCompletionService<String> race = new ExecutorCompletionService<>(llmRequestExecutor);
+        List<Future<String>> calls = new ArrayList<>(2);
+        try {
+            calls.add(race.submit(call::get));
+        } catch (RejectedExecutionException e) {
+            return call.get();
+        }
+        boolean hedged = false;
+        int pending = 1;
+        LLMException failure = null;
+        try {
+            while (pending > 0) {
+                long wait = hedged ? deadline.remainingMillis() : Math.min(delay, deadline.remainingMillis());
+                Future<String> done = race.poll(wait, TimeUnit.MILLISECONDS);
+                if (done == null) {
+                    if (hedged || deadline.isExpired()) {
+                        throw new LLMException(LLMException.Reason.DEADLINE, "Échéance de la requête atteinte avant la réponse du modèle");
+                    }
+                    hedged = true;
+                    try {
+                        calls.add(race.submit(call::get));
+                        pending++;
+                        Counter.builder("llm.hedge.sent")
+                                .description("Requêtes doublées faute de réponse après le délai de doublement")
+                                .register(meterRegistry)
+                                .increment();
+                    } catch (RejectedExecutionException e) {
+                        log.debug("Pool des appels au modèle saturé : requête non doublée");
+                    }
+                    continue;
+                }
+                pending--;
+                try {
+                    String response = done.get();
+                    if (calls.size() > 1) {
+                        Counter.builder("llm.hedge.won")
+                                .description("Requêtes doublées, selon la requête qui a répondu la première")
+                                .tag("winner", done == calls.get(0) ? "primary" : "hedge")
+                                .register(meterRegistry)
+                                .increment();
+                    }
+                    return response;
+                } catch (ExecutionException e) {
+                    failure = unwrap(e);
+                }
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LLMException(LLMException.Reason.CANCELLED, "Appel au modèle interrompu", e);
+        } finally {
+            for (Future<String> pendingCall : calls) {
+                pendingCall.cancel(true);
+            }
+        }
+    }
+
+    private String timed(Supplier<String> call) {
+        long start = System.nanoTime();
+        String response = call.get();
+        latencies.record(System.nanoTime() - start);
+        return response;
+    }
+
+    /**
+     * Délai avant doublement, en ms : quantile des latences récentes, -1 tant qu'elles sont trop peu nombreuses
+     */
+    private long hedgeDelayMillis() {
+        if (!hedgeEnabled || latencies.size() < hedgeMinSamples) {
+            return -1;
+        }
+        return Math.max(hedgeMinDelayMs, TimeUnit.NANOSECONDS.toMillis(latencies.quantile(hedgeQuantile)));
+    }
+
+    private static LLMException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof LLMException llmException) {
+            return llmException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new LLMException("Appel au modèle impossible: " + cause.getMessage(), cause);
+    }
+}
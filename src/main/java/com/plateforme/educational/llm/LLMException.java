@@ -0,0 +1,40 @@
+package com.plateforme.educational.llm;
+
+/**
+ * Échec d'un appel au modèle (réseau, délai dépassé, réponse HTTP en erreur ou illisible),
+ * ou appel refusé par LLMCallGuard
+ */
+public class LLMException extends RuntimeException {
+
+    /**
+     * Cause de l'échec, reprise dans la métrique des replis (llm.fallback)
+     * TIMEOUT : délai de lecture du modèle dépassé.
+     * DEADLINE : échéance de la requête d'origine atteinte avant le délai de lecture ; comme
+     * CANCELLED (appel abandonné par l'appelant : requête doublée plus lente, thread interrompu),
+     * elle ne dit rien de l'état du modèle.
+     */
+    public enum Reason { ERROR, TIMEOUT, DEADLINE, OVERLOADED, CIRCUIT_OPEN, CANCELLED }
+
+    private final Reason reason;
+
+    public LLMException(String message) {
+        this(Reason.ERROR, message, null);
+    }
+
+    public LLMException(String message, Throwable cause) {
+        this(Reason.ERROR, message, cause);
+    }
+
+    public LLMException(Reason reason, String message) {
+        this(reason, message, null);
+    }
+
+    public LLMException(Reason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,267 @@
+package com.plateforme.educational.llm;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Faux fournisseur de modèle, embarqué, pour les tests de charge hors ligne
+ * Répond sur l'interface locale aux API Chat Completions (/v1/chat/completions) et Ollama
+ * (/api/generate) avec un quiz JSON valide, en simulant la latence du modèle (délai avant
+ * le premier octet, gigue, pics occasionnels), son débit (jetons par seconde) et des erreurs.
+ * Les requêtes en flux (stream=true) reçoivent des fragments SSE (OpenAI) ou NDJSON (Ollama).
+ * Pour l'utiliser : llm.stub.enabled=true et llm.provider pointant sur http://localhost:{port}.
+ * Avec llm.stub.seed, les tirages de la n-ième requête reçue (pic, erreur, lot) ne dépendent que
+ * de la graine et de n : une même suite de requêtes subit les mêmes pics et les mêmes erreurs.
+ */
+@Component
+@ConditionalOnProperty(name = "llm.stub.enabled", havingValue = "true")
+@Slf4j
+public class LLMStubServer {
+
+    private static final Pattern QUESTION_COUNT = Pattern.compile("exactement (\\d+)");
+
+    // Approximation usuelle : un jeton ~ 4 caractères
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final Gson gson = new Gson();
+
+    @Value("${llm.stub.port:8089}")
+    private int port;
+
+    @Value("${llm.stub.threads:32}")
+    private int threads;
+
+    @Value("${llm.stub.latency-ms:300}")
+    private long latencyMs;
+
+    @Value("${llm.stub.jitter-ms:100}")
+    private long jitterMs;
+
+    @Value("${llm.stub.tokens-per-second:200}")
+    private int tokensPerSecond;
+
+    @Value("${llm.stub.spike-probability:0.0}")
+    private double spikeProbability;
+
+    @Value("${llm.stub.spike-latency-ms:5000}")
+    private long spikeLatencyMs;
+
+    @Value("${llm.stub.error-rate:0.0}")
+    private double errorRate;
+
+    // 0 : tirages non reproductibles
+    @Value("${llm.stub.seed:0}")
+    private long seed;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @PostConstruct
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/v1/chat/completions", exchange -> handle(exchange, true));
+        server.createContext("/api/generate", exchange -> handle(exchange, false));
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "llm-stub-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        log.info("Serveur LLM simulé démarré sur http://localhost:{} (latence {} ms ± {} ms, {} jetons/s, pics {} %, erreurs {} %)",
+                port, latencyMs, jitterMs, tokensPerSecond, spikeProbability * 100, errorRate * 100);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            log.info("Serveur LLM simulé arrêté après {} requêtes", requests.get());
+        }
+    }
+
+    private void handle(HttpExchange exchange, boolean openAi) throws IOException {
+        RandomGenerator random = random(requests.incrementAndGet());
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            JsonObject request;
+            try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+                request = JsonParser.parseReader(reader).getAsJsonObject();
+            }
+            String prompt = openAi
+                    ? request.getAsJsonArray("messages").get(0).getAsJsonObject().get("content").getAsString()
+                    : request.get("prompt").getAsString();
+
+            sleep(random.nextDouble() < spikeProbability ? spikeLatencyMs : latencyMs + random.nextLong(jitterMs + 1));
+            if (random.nextDouble() < errorRate) {
+                byte[] error = "{\"error\":\"surcharge simulée\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(503, error.length);
+                exchange.getResponseBody().write(error);
+                return;
+            }
+
+            String content = quiz(prompt, random);
+            String model = request.has("model") ? request.get("model").getAsString() : "stub";
+            if (request.has("stream") && request.get("stream").getAsBoolean()) {
+                stream(exchange, openAi, model, content);
+                return;
+            }
+
+            JsonObject response = new JsonObject();
+            if (openAi) {
+                JsonObject message = new JsonObject();
+                message.addProperty("role", "assistant");
+                message.addProperty("content", content);
+                JsonObject choice = new JsonObject();
+                choice.addProperty("index", 0);
+                choice.add("message", message);
+                choice.addProperty("finish_reason", "stop");
+                JsonArray choices = new JsonArray();
+                choices.add(choice);
+                response.addProperty("model", model);
+                response.add("choices", choices);
+            } else {
+                response.addProperty("model", model);
+                response.addProperty("response", content);
+                response.addProperty("done", true);
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            byte[] body = gson.toJson(response).getBytes(StandardCharsets.UTF_8);
+            OutputStream out = exchange.getResponseBody();
+            paced(body.length, (offset, end) -> out.write(body, offset, end - offset), out);
+        } catch (RuntimeException e) {
+            log.warn("Requête invalide pour le serveur LLM simulé: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Réponse en flux : un fragment d'environ 8 jetons par événement, au débit configuré
+     */
+    private void stream(HttpExchange exchange, boolean openAi, String model, String content) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", openAi ? "text/event-stream" : "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        paced(content.length(), (offset, end) -> {
+            JsonObject chunk = new JsonObject();
+            chunk.addProperty("model", model);
+            if (openAi) {
+                JsonObject delta = new JsonObject();
+                delta.addProperty("content", content.substring(offset, end));
+                JsonObject choice = new JsonObject();
+                choice.addProperty("index", 0);
+                choice.add("delta", delta);
+                JsonArray choices = new JsonArray();
+                choices.add(choice);
+                chunk.add("choices", choices);
+                out.write(("data: " + gson.toJson(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+            } else {
+                chunk.addProperty("response", content.substring(offset, end));
+                chunk.addProperty("done", false);
+                out.write((gson.toJson(chunk) + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }, out);
+
+        if (openAi) {
+            out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        } else {
+            JsonObject last = new JsonObject();
+            last.addProperty("model", model);
+            last.addProperty("response", "");
+            last.addProperty("done", true);
+            out.write((gson.toJson(last) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(int offset, int end) throws IOException;
+    }
+
+    /**
+     * Découpe [0, length) en paquets d'environ 8 jetons écrits au débit configuré
+     */
+    private void paced(int length, ChunkWriter writer, OutputStream out) throws IOException {
+        int chunk = 8 * CHARS_PER_TOKEN;
+        long nanosPerChunk = tokensPerSecond > 0 ? 8_000_000_000L / tokensPerSecond : 0;
+        long next = System.nanoTime();
+        for (int offset = 0; offset < length; offset += chunk) {
+            writer.write(offset, Math.min(length, offset + chunk));
+            out.flush();
+            if (nanosPerChunk > 0) {
+                next += nanosPerChunk;
+                sleep((next - System.nanoTime()) / 1_000_000);
+            }
+        }
+    }
+
+    private RandomGenerator random(int request) {
+        return seed != 0 ? new SplittableRandom(seed + request) : ThreadLocalRandom.current();
+    }
+
+    private String quiz(String prompt, RandomGenerator random) {
+        Matcher matcher = QUESTION_COUNT.matcher(prompt);
+        int count = matcher.find() ? Integer.parseInt(matcher.group(1)) : 5;
+        int salt = random.nextInt(1_000_000);
+
+        JsonArray questions = new JsonArray();
+        for (int i = 1; i <= count; i++) {
+            JsonObject question = new JsonObject();
+            question.addProperty("question", "Question simulée n°" + i + " (lot " + salt + ") : quelle option est correcte ?");
+            JsonArray options = new JsonArray();
+            options.add("Option correcte " + i);
+            options.add("Option plausible A");
+            options.add("Option plausible B");
+            options.add("Option plausible C");
+            question.add("options", options);
+            question.addProperty("correctAnswerIndex", 0);
+            question.addProperty("explanation", "Réponse générée par le serveur LLM simulé.");
+            questions.add(question);
+        }
+        return gson.toJson(questions);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.plateforme.educational.llm;
+
+import java.util.Arrays;
+
+/**
+ * Latences des derniers appels réussis (tampon circulaire), pour en tirer un quantile
+ * Le tampon est petit : le tri d'une copie à chaque lecture reste négligeable devant un appel réseau.
+ */
+final class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+
+    LatencyWindow(int capacity) {
+        this.samples = new long[Math.max(1, capacity)];
+    }
+
+    synchronized void record(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Quantile q (entre 0 et 1) des latences mesurées, en nanosecondes ; -1 sans mesure
+     */
+    long quantile(double q) {
+        long[] sorted;
+        synchronized (this) {
+            if (size == 0) {
+                return -1;
+            }
+            sorted = Arrays.copyOf(samples, size);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+    }
+}
@@ -0,0 +1,87 @@
+package com.plateforme.educational.llm;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.plateforme.educational.util.Deadline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Client de l'API /api/generate d'Ollama (modèles locaux)
+ */
+@Component
+@ConditionalOnProperty(name = "llm.provider", havingValue = "ollama")
+public class OllamaClient extends HttpLLMClient {
+
+    private final URI endpoint;
+    private final String model;
+    private final double temperature;
+
+    public OllamaClient(HttpClient llmHttpClient,
+                        @Value("${llm.read-timeout-ms:30000}") long readTimeoutMs,
+                        @Value("${spring.ai.ollama.base-url:http://localhost:11434}") String baseUrl,
+                        @Value("${spring.ai.ollama.chat.options.model:tinyllama:latest}") String model,
+                        @Value("${spring.ai.ollama.chat.options.temperature:0.7}") double temperature) {
+        super(llmHttpClient, readTimeoutMs);
+        this.endpoint = URI.create(baseUrl.replaceAll("/+$", "") + "/api/generate");
+        this.model = model;
+        this.temperature = temperature;
+    }
+
+    @Override
+    public String model() {
+        return model;
+    }
+
+    @Override
+    public String complete(String prompt, long seed, Deadline deadline) {
+        JsonObject response = postJson(endpoint, request(prompt, seed, false), Map.of(), deadline);
+        if (!response.has("response")) {
+            throw new LLMException("Réponse inattendue de " + endpoint + ": champ 'response' absent");
+        }
+        return response.get("response").getAsString();
+    }
+
+    /**
+     * Réponse en flux : un objet JSON par ligne, portant chacun un fragment (champ response)
+     */
+    @Override
+    public void stream(String prompt, long seed, Deadline deadline, Consumer<String> onText) {
+        postJsonLines(endpoint, request(prompt, seed, true), Map.of(), deadline, line -> {
+            if (line.isBlank()) {
+                return;
+            }
+            try {
+                JsonObject chunk = JsonParser.parseString(line).getAsJsonObject();
+                if (chunk.has("error")) {
+                    throw new LLMException("Erreur de " + endpoint + ": " + chunk.get("error").getAsString());
+                }
+                if (chunk.has("response")) {
+                    onText.accept(chunk.get("response").getAsString());
+                }
+            } catch (JsonParseException | IllegalStateException e) {
+                throw new LLMException("Fragment illisible de " + endpoint + ": " + abbreviate(line), e);
+            }
+        });
+    }
+
+    private JsonObject request(String prompt, long seed, boolean stream) {
+        JsonObject options = new JsonObject();
+        options.addProperty("temperature", temperature);
+        options.addProperty("seed", seed);
+
+        JsonObject body = new JsonObject();
+        body.addProperty("model", model);
+        body.addProperty("prompt", prompt);
+        body.addProperty("stream", stream);
+        body.add("options", options);
+        return body;
+    }
+}
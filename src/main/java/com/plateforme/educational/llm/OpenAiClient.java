@@ -0,0 +1,102 @@
+package com.plateforme.educational.llm;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.plateforme.educational.util.Deadline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Client de l'API Chat Completions (OpenAI et serveurs compatibles : vLLM, LM Studio, LocalAI...)
+ */
+@Component
+@ConditionalOnProperty(name = "llm.provider", havingValue = "openai")
+public class OpenAiClient extends HttpLLMClient {
+
+    private final URI endpoint;
+    private final String apiKey;
+    private final String model;
+    private final double temperature;
+
+    public OpenAiClient(HttpClient llmHttpClient,
+                        @Value("${llm.read-timeout-ms:30000}") long readTimeoutMs,
+                        @Value("${spring.ai.openai.base-url:https://api.openai.com}") String baseUrl,
+                        @Value("${spring.ai.openai.api-key:}") String apiKey,
+                        @Value("${spring.ai.openai.chat.options.model:gpt-3.5-turbo}") String model,
+                        @Value("${spring.ai.openai.chat.options.temperature:0.7}") double temperature) {
+        super(llmHttpClient, readTimeoutMs);
+        this.endpoint = URI.create(baseUrl.replaceAll("/+$", "") + "/v1/chat/completions");
+        this.apiKey = apiKey;
+        this.model = model;
+        this.temperature = temperature;
+    }
+
+    @Override
+    public String model() {
+        return model;
+    }
+
+    @Override
+    public String complete(String prompt, long seed, Deadline deadline) {
+        JsonObject response = postJson(endpoint, request(prompt, seed, false), headers(), deadline);
+        try {
+            return response.getAsJsonArray("choices").get(0).getAsJsonObject()
+                    .getAsJsonObject("message").get("content").getAsString();
+        } catch (RuntimeException e) {
+            throw new LLMException("Réponse inattendue de " + endpoint + ": aucun choix exploitable", e);
+        }
+    }
+
+    /**
+     * Réponse en flux SSE : lignes « data: {...} » portant chacune un fragment (delta), puis « data: [DONE] »
+     */
+    @Override
+    public void stream(String prompt, long seed, Deadline deadline, Consumer<String> onText) {
+        postJsonLines(endpoint, request(prompt, seed, true), headers(), deadline, line -> {
+            if (!line.startsWith("data:")) {
+                return;
+            }
+            String data = line.substring(5).trim();
+            if (data.isEmpty() || "[DONE]".equals(data)) {
+                return;
+            }
+            try {
+                JsonObject delta = JsonParser.parseString(data).getAsJsonObject()
+                        .getAsJsonArray("choices").get(0).getAsJsonObject()
+                        .getAsJsonObject("delta");
+                if (delta != null && delta.has("content") && !delta.get("content").isJsonNull()) {
+                    onText.accept(delta.get("content").getAsString());
+                }
+            } catch (RuntimeException e) {
+                throw new LLMException("Fragment illisible de " + endpoint + ": " + abbreviate(data), e);
+            }
+        });
+    }
+
+    private JsonObject request(String prompt, long seed, boolean stream) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "user");
+        message.addProperty("content", prompt);
+        JsonArray messages = new JsonArray();
+        messages.add(message);
+
+        JsonObject body = new JsonObject();
+        body.addProperty("model", model);
+        body.add("messages", messages);
+        body.addProperty("temperature", temperature);
+        body.addProperty("seed", seed);
+        body.addProperty("stream", stream);
+        return body;
+    }
+
+    private Map<String, String> headers() {
+        return apiKey.isBlank() ? Map.of() : Map.of("Authorization", "Bearer " + apiKey);
+    }
+}
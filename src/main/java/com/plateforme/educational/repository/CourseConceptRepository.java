@@ -0,0 +1,19 @@
+package com.plateforme.educational.repository;
+
+import com.plateforme.educational.entity.Course;
+import com.plateforme.educational.entity.CourseConcept;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CourseConceptRepository extends JpaRepository<CourseConcept, Long> {
+
+    List<CourseConcept> findByCourseIdOrderByConceptIndex(Long courseId);
+
+    @Modifying
+    @Query("DELETE FROM CourseConcept c WHERE c.course = :course")
+    void deleteByCourse(@Param("course") Course course);
+}
@@ -0,0 +1,19 @@
+package com.plateforme.educational.repository;
+
+import com.plateforme.educational.entity.Course;
+import com.plateforme.educational.entity.CourseFact;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CourseFactRepository extends JpaRepository<CourseFact, Long> {
+
+    List<CourseFact> findByCourseIdOrderByFactIndex(Long courseId);
+
+    @Modifying
+    @Query("DELETE FROM CourseFact f WHERE f.course = :course")
+    void deleteByCourse(@Param("course") Course course);
+}
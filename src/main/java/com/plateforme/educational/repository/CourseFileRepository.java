@@ -3,9 +3,13 @@ package com.plateforme.educational.repository;
 import com.plateforme.educational.entity.Course;
 import com.plateforme.educational.entity.CourseFile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface CourseFileRepository extends JpaRepository<CourseFile, Long> {
     List<CourseFile> findByCourse(Course course);
+
+    @Query("SELECT f.storagePath FROM CourseFile f")
+    List<String> findAllStoragePaths();
 }
@@ -0,0 +1,36 @@
+package com.plateforme.educational.repository;
+
+import com.plateforme.educational.entity.Course;
+import com.plateforme.educational.entity.PooledQuestion;
+import com.plateforme.educational.entity.QuizAttempt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PooledQuestionRepository extends JpaRepository<PooledQuestion, Long> {
+
+    List<PooledQuestion> findByCourseIdAndDifficulty(Long courseId, QuizAttempt.DifficultyLevel difficulty);
+
+    void deleteByCourse(Course course);
+
+    /**
+     * Incrément atomique : les lignes restent verrouillées jusqu'à la fin de la transaction
+     */
+    @Modifying
+    @Query("UPDATE PooledQuestion q SET q.serveCount = q.serveCount + 1 WHERE q.id IN :ids")
+    int incrementServeCount(@Param("ids") Collection<Long> ids);
+
+    // Suppression en SQL : les options (collection d'éléments) ne sont pas supprimées par un DELETE JPQL
+    @Modifying
+    @Query(value = "DELETE FROM pooled_question_options WHERE question_id IN "
+            + "(SELECT id FROM pooled_questions WHERE id IN (:ids) AND serve_count >= :maxServes)", nativeQuery = true)
+    void deleteOptionsOfWornOut(@Param("ids") Collection<Long> ids, @Param("maxServes") int maxServes);
+
+    @Modifying
+    @Query(value = "DELETE FROM pooled_questions WHERE id IN (:ids) AND serve_count >= :maxServes", nativeQuery = true)
+    int deleteWornOut(@Param("ids") Collection<Long> ids, @Param("maxServes") int maxServes);
+}
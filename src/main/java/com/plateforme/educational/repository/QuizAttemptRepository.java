@@ -25,6 +25,8 @@ public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long>
         @Param("courseId") Long courseId
     );
     
+    List<QuizAttempt> findByGeneratingTrue();
+    
     @Query("SELECT AVG(qa.score) FROM QuizAttempt qa WHERE qa.student.id = :studentId AND qa.course.id = :courseId")
     Double getAverageScoreByStudentAndCourse(
         @Param("studentId") Long studentId, 
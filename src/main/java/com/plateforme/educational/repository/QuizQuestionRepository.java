@@ -2,6 +2,8 @@ package com.plateforme.educational.repository;
 
 import com.plateforme.educational.entity.QuizQuestion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +12,9 @@ import java.util.List;
 public interface QuizQuestionRepository extends JpaRepository<QuizQuestion, Long> {
     
     List<QuizQuestion> findByQuizAttemptId(Long quizAttemptId);
+
+    List<QuizQuestion> findByQuizAttemptIdOrderById(Long quizAttemptId);
+
+    @Query("SELECT DISTINCT q FROM QuizQuestion q LEFT JOIN FETCH q.options WHERE q.quizAttempt.student.id = :studentId AND q.quizAttempt.course.id = :courseId")
+    List<QuizQuestion> findWithOptionsByStudentAndCourse(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
 }
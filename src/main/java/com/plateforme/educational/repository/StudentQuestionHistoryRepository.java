@@ -0,0 +1,34 @@
+package com.plateforme.educational.repository;
+
+import com.plateforme.educational.entity.Course;
+import com.plateforme.educational.entity.StudentQuestionHistory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface StudentQuestionHistoryRepository extends JpaRepository<StudentQuestionHistory, Long> {
+
+    // Empreintes seules : l'entité n'entre pas dans le contexte de persistance avant son verrouillage
+    @Query("SELECT h.fingerprints FROM StudentQuestionHistory h WHERE h.student.id = :studentId AND h.course.id = :courseId")
+    Optional<byte[]> findFingerprints(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
+
+    /**
+     * Ligne verrouillée en écriture jusqu'à la fin de la transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM StudentQuestionHistory h WHERE h.student.id = :studentId AND h.course.id = :courseId")
+    Optional<StudentQuestionHistory> findForUpdate(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
+
+    @Modifying
+    @Query("DELETE FROM StudentQuestionHistory h WHERE h.course = :course")
+    void deleteByCourse(@Param("course") Course course);
+
+    @Modifying
+    @Query("DELETE FROM StudentQuestionHistory h WHERE h.student.id = :studentId")
+    void deleteByStudentId(@Param("studentId") Long studentId);
+}
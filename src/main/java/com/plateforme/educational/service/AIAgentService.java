@@ -2,17 +2,25 @@ package com.plateforme.educational.service;
 
 import com.plateforme.educational.entity.*;
 import com.plateforme.educational.repository.QuizAttemptRepository;
+import com.plateforme.educational.util.Deadline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Service d'IA Agentique
  * Superviseur intelligent qui contrôle et adapte la génération de quiz
  * Utilise maintenant le QuizGeneratorAgent pour une génération plus intelligente
+ * La génération d'un quiz se fait hors transaction (l'appel au modèle peut durer plusieurs
+ * secondes sans retenir de connexion JDBC) ; la tentative est enregistrée ensuite, dans une
+ * transaction courte.
  */
 @Service
 @RequiredArgsConstructor
@@ -22,8 +30,10 @@ public class AIAgentService {
 
     private final RAGService ragService;
     private final LLMService llmService;
-    private final QuizGeneratorAgent quizGeneratorAgent;
+    private final QuestionPoolService questionPoolService;
+    private final QuestionHistoryService questionHistoryService;
     private final QuizAttemptRepository quizAttemptRepository;
+    private final PlatformTransactionManager transactionManager;
 
     // Seuils de performance
     private static final double EXCELLENT_SCORE = 90.0;
@@ -35,6 +45,7 @@ public class AIAgentService {
      * Génère un quiz adapté en analysant l'historique de l'étudiant
      * Utilise le QuizGeneratorAgent pour une génération intelligente
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public QuizAttempt generateAdaptiveQuiz(User student, Course course) {
         log.info("AI Agent: Generating adaptive intelligent quiz for student {} on course {}", 
                 student.getUsername(), course.getTitle());
@@ -45,30 +56,26 @@ public class AIAgentService {
         // Étape 2: Décider des paramètres du quiz
         QuizParameters parameters = decideQuizParameters(analysis);
         
-        // Étape 3: Générer les questions via l'agent intelligent
-        log.info("Using QuizGeneratorAgent for adaptive question generation");
-        
-        List<QuizGeneratorAgent.GeneratedQuestion> intelligentQuestions = 
-            quizGeneratorAgent.generateQuestions(
-                course, 
-                parameters.getDifficulty().name(), 
-                parameters.getNumberOfQuestions()
-            );
-        
-        // Étape 4: Créer la tentative de quiz
-        QuizAttempt attempt = createQuizAttemptFromAgent(student, course, intelligentQuestions, parameters);
+        // Étapes 3 et 4: Générer les questions et créer la tentative de quiz
+        long seed = ThreadLocalRandom.current().nextLong();
+        QuizAttempt attempt = generateAttempt(student, course, parameters, seed, false, Deadline.none());
+        attempt.setGenerationSeed(seed);
         
         // Étape 5: Enregistrer la décision de l'agent
         attempt.setAgentDecision(buildAgentDecision(analysis, parameters));
         
-        return quizAttemptRepository.save(attempt);
+        return persist(attempt);
     }
 
     /**
      * Génère un quiz avec les paramètres choisis par l'étudiant
      * Utilise le QuizGeneratorAgent pour une génération intelligente basée sur le contenu réel
+     * Une graine fournie rend le quiz reproductible ; sinon une graine aléatoire est tirée et enregistrée.
+     * Les appels au modèle s'arrêtent à l'échéance de la requête (repli sur la génération locale).
      */
-    public QuizAttempt generateCustomQuiz(User student, Course course, String difficulty, int numQuestions) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public QuizAttempt generateCustomQuiz(User student, Course course, String difficulty, int numQuestions, Long seed,
+                                          Deadline deadline) {
         log.info("AI Agent: Generating intelligent quiz for student {} on course {} with difficulty {} and {} questions", 
                 student.getUsername(), course.getTitle(), difficulty, numQuestions);
 
@@ -86,23 +93,19 @@ public class AIAgentService {
         parameters.setNumberOfQuestions(numQuestions);
         parameters.setContextChunks(20);
 
-        // *** UTILISER LE NOUVEL AGENT INTELLIGENT ***
-        log.info("Using QuizGeneratorAgent for intelligent question generation");
+        // Générer les questions et créer la tentative de quiz
+        long generationSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        QuizAttempt attempt = generateAttempt(student, course, parameters, generationSeed, seed != null, deadline);
+        attempt.setGenerationSeed(generationSeed);
         
-        List<QuizGeneratorAgent.GeneratedQuestion> intelligentQuestions = 
-            quizGeneratorAgent.generateQuestions(course, difficulty, numQuestions);
-        
-        log.info("Generated {} intelligent questions from course content", intelligentQuestions.size());
-
-        // Créer la tentative de quiz avec les questions intelligentes
-        QuizAttempt attempt = createQuizAttemptFromAgent(student, course, intelligentQuestions, parameters);
+        log.info("Generated {} questions from course content", attempt.getTotalQuestions());
         
         // Enregistrer le choix de l'étudiant
         attempt.setAgentDecision("Quiz intelligent généré - Niveau: " + difficulty + 
                                   ", Questions: " + numQuestions + 
                                   " (Agent: QuizGeneratorAgent)");
 
-        return quizAttemptRepository.save(attempt);
+        return persist(attempt);
     }
 
     /**
@@ -271,6 +274,43 @@ public class AIAgentService {
         return attempt;
     }
 
+    /**
+     * Questions du quiz : par le modèle de langage s'il est configuré et disponible (contexte RAG du cours),
+     * sinon tirées dans la réserve alimentée par le QuizGeneratorAgent
+     */
+    private QuizAttempt generateAttempt(User student, Course course, QuizParameters parameters, long seed,
+                                        boolean reproducible, Deadline deadline) {
+        if (llmService.useModel()) {
+            log.info("Generating questions with the configured language model");
+            List<String> context = ragService.getCourseContext(course, parameters.getContextChunks());
+            List<LLMService.QuizQuestionDTO> questions = llmService.generateQuizQuestions(llmService.request(
+                    context, parameters.getDifficulty().name(), parameters.getNumberOfQuestions(), seed, reproducible, deadline));
+            return createQuizAttempt(student, course, questions, parameters);
+        }
+
+        log.info("Drawing questions from the QuizGeneratorAgent pool");
+        List<QuizGeneratorAgent.GeneratedQuestion> questions = questionPoolService.draw(
+                student, course, parameters.getDifficulty(), parameters.getNumberOfQuestions(), seed, reproducible);
+        return createQuizAttemptFromAgent(student, course, questions, parameters);
+    }
+
+    /**
+     * Enregistre la tentative générée et l'historique de ses questions, dans une même transaction
+     */
+    private QuizAttempt persist(QuizAttempt attempt) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            recordHistory(attempt);
+            return quizAttemptRepository.save(attempt);
+        });
+    }
+
+    /**
+     * Mémorise les questions servies pour qu'elles ne soient plus proposées à l'étudiant
+     */
+    private void recordHistory(QuizAttempt attempt) {
+        questionHistoryService.record(attempt.getStudent(), attempt.getCourse(), attempt.getQuestions());
+    }
+
     /**
      * Construit un message décrivant la décision de l'agent
      */
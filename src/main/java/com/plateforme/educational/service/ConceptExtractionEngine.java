@@ -0,0 +1,128 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.service.QuizGeneratorAgent.ConceptInfo;
+import com.plateforme.educational.util.AhoCorasick;
+import com.plateforme.educational.util.SentenceSegmenter.Segmentation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Moteur d'extraction des concepts (termes + définitions) et des faits d'un contenu de cours
+ * Les définitions sont reconnues par un scanner en temps linéaire (DefinitionScanner), sous un
+ * budget de temps par document ; les mots indicateurs d'information sont recherchés en un seul
+ * passage par un automate d'Aho-Corasick. Les deux extractions parcourent le même découpage
+ * en phrases (SentenceSegmenter), calculé une fois par document.
+ */
+@Component
+@Slf4j
+public class ConceptExtractionEngine {
+
+    // À incrémenter dès que le contenu de la base de connaissances change : les bases stockées seront reconstruites
+    public static final int VERSION = 3;
+
+    // Borne du nombre de faits conservés par cours
+    private static final int MAX_FACTS = 500;
+
+    // Mots indicateurs d'information
+    private static final String[] INFORMATION_INDICATORS = {
+        "permet", "est", "sont", "peut", "doit", "représente", "contient",
+        "utilise", "produit", "génère", "crée", "fonctionne", "sert",
+        "comprend", "inclut", "nécessite", "requiert", "implique",
+        "consiste", "caractérise", "définit", "décrit", "explique"
+    };
+
+    private static final Pattern TERM_PATTERN = Pattern.compile("\\b([A-Z][a-zA-ZÀ-ÿ]{2,})\\b");
+    private static final Pattern ARTICLE_PREFIX = Pattern.compile("^(Un|Une|Le|La|Les|L')\\s*");
+
+    private static final Set<String> COMMON_WORDS = Set.of(
+        "Dans", "Pour", "Avec", "Sans", "Cette", "Cela", "Donc", "Mais", "Puis",
+        "Quel", "Quoi", "Comment", "Pourquoi", "Quand", "Alors", "Ainsi", "Aussi",
+        "Bien", "Très", "Plus", "Moins", "Tout", "Tous", "Toute", "Toutes"
+    );
+
+    private static final AhoCorasick INDICATORS = new AhoCorasick(List.of(INFORMATION_INDICATORS));
+
+    // Budget de temps de la recherche de définitions pour un document
+    @Value("${quiz.extraction.time-budget-ms:2000}")
+    private long timeBudgetMs;
+
+    /**
+     * Extrait les concepts clés du contenu (termes + définitions)
+     */
+    public List<ConceptInfo> extractConcepts(Segmentation segmentation) {
+        String content = segmentation.text();
+        List<ConceptInfo> concepts = new ArrayList<>();
+        Set<String> seenTerms = new HashSet<>();
+
+        DefinitionScanner scanner = new DefinitionScanner();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+
+        for (CharSequence candidate : segmentation.lines()) {
+            if (System.nanoTime() > deadline) {
+                log.warn("Recherche de définitions interrompue après {} ms ({} concepts trouvés)", timeBudgetMs, concepts.size());
+                break;
+            }
+            if (candidate.length() < 20 || candidate.length() > 500) continue;
+
+            scanner.scan(candidate, (rawTerm, rawDefinition) -> {
+                String term = cleanTerm(rawTerm);
+                String definition = rawDefinition.trim();
+
+                if (term.length() >= 3 && term.length() <= 50 &&
+                    definition.length() >= 10 && seenTerms.add(term.toLowerCase())) {
+                    concepts.add(new ConceptInfo(term, definition, candidate.toString(), "course"));
+                }
+            });
+        }
+
+        // Extraire aussi les termes importants (mots en majuscules, termes techniques)
+        Matcher termMatcher = TERM_PATTERN.matcher(content);
+
+        while (termMatcher.find() && concepts.size() < 30) {
+            String term = termMatcher.group(1);
+            if (term.length() >= 4 && !COMMON_WORDS.contains(term) && seenTerms.add(term.toLowerCase())) {
+                // Trouver le contexte autour du terme
+                int start = Math.max(0, termMatcher.start() - 50);
+                int end = Math.min(content.length(), termMatcher.end() + 150);
+                String context = content.substring(start, end).trim();
+                concepts.add(new ConceptInfo(term, context, context, "course"));
+            }
+        }
+
+        log.debug("Concepts extraits: {}", concepts.stream().map(c -> c.term).collect(Collectors.joining(", ")));
+        return concepts;
+    }
+
+    /**
+     * Extrait les faits importants du contenu, dans leur ordre d'apparition
+     */
+    public List<String> extractFacts(Segmentation segmentation) {
+        List<String> facts = new ArrayList<>();
+        Set<String> seenFacts = new HashSet<>();
+
+        for (CharSequence sentence : segmentation.sentences()) {
+            if (facts.size() >= MAX_FACTS) break;
+
+            // Filtrer les phrases de bonne longueur contenant des informations
+            if (sentence.length() >= 30 && sentence.length() <= 300 && INDICATORS.containsAny(sentence)) {
+                String fact = sentence.toString();
+                if (seenFacts.add(fact.toLowerCase())) {
+                    facts.add(fact);
+                }
+            }
+        }
+
+        return facts;
+    }
+
+    private String cleanTerm(String term) {
+        return ARTICLE_PREFIX.matcher(term).replaceFirst("").trim();
+    }
+}
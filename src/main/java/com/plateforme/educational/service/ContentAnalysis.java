@@ -0,0 +1,177 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.util.AhoCorasick;
+import com.plateforme.educational.util.SentenceSegmenter;
+import com.plateforme.educational.util.SentenceSegmenter.Segmentation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Analyse du contenu d'un cours pour la génération locale (LLMService), en une seule lecture
+ * Les lignes sont parcourues une fois par un automate réunissant les marqueurs de définition et
+ * de concept ; les mots sont lus une fois, sans split ni expression régulière, dans deux tampons
+ * réutilisés, et ne deviennent des String que s'ils sont retenus. Les doublons sont écartés par
+ * table de hachage.
+ */
+record ContentAnalysis(List<String> concepts, List<String> sentences, List<String> definitions,
+                       List<String> keyTerms) {
+
+    private static final int DEFINITION = 1;
+    private static final int TECHNICAL = 2;
+
+    // Marqueurs de définition et de concept technique, rôle de chaque motif de l'automate commun
+    private static final List<String> DEFINITION_MARKERS = List.of(
+        "est défini comme", "se définit comme", "est un", "est une",
+        "représente", "désigne", "signifie", "correspond à",
+        "on appelle", "on définit", "c'est", "il s'agit de"
+    );
+    private static final List<String> TECHNICAL_MARKERS = List.of(
+        "est un", "est une", "permet de", "consiste à", "définit",
+        "représente", "signifie", "désigne", "correspond à"
+    );
+
+    private static final AhoCorasick MARKERS;
+    private static final int[] ROLES;
+
+    static {
+        Map<String, Integer> roles = new LinkedHashMap<>();
+        DEFINITION_MARKERS.forEach(marker -> roles.merge(marker, DEFINITION, (a, b) -> a | b));
+        TECHNICAL_MARKERS.forEach(marker -> roles.merge(marker, TECHNICAL, (a, b) -> a | b));
+        MARKERS = new AhoCorasick(new ArrayList<>(roles.keySet()));
+        ROLES = roles.values().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static ContentAnalysis of(String content) {
+        Segmentation segmentation = SentenceSegmenter.segment(content);
+        List<String> concepts = new ArrayList<>();
+        List<String> sentences = new ArrayList<>();
+        List<String> definitions = new ArrayList<>();
+        List<String> keyTerms = new ArrayList<>();
+
+        // Lignes : définitions (30 à 300 caractères) et concepts (20 à 200), un seul parcours par ligne
+        for (CharSequence line : segmentation.lines()) {
+            int length = line.length();
+            int wanted = (length > 30 && length < 300 ? DEFINITION : 0) | (length > 20 && length < 200 ? TECHNICAL : 0);
+            if (wanted == 0) {
+                continue;
+            }
+            int found = markers(line, wanted);
+            if (found != 0) {
+                String text = line.toString();
+                if ((found & DEFINITION) != 0) {
+                    definitions.add(text);
+                }
+                if ((found & TECHNICAL) != 0) {
+                    concepts.add(text);
+                }
+            }
+        }
+
+        for (CharSequence sentence : segmentation.sentences()) {
+            if (sentence.length() > 30 && sentence.length() < 250) {
+                sentences.add(sentence.toString());
+            }
+        }
+
+        scanWords(content, concepts, keyTerms);
+        return new ContentAnalysis(concepts, sentences, definitions, keyTerms);
+    }
+
+    /**
+     * Rôles (parmi wanted) des marqueurs présents dans la ligne ; le parcours s'arrête dès que tous sont trouvés
+     */
+    private static int markers(CharSequence line, int wanted) {
+        int[] found = {0};
+        MARKERS.scan(line, (pattern, start, end) -> {
+            found[0] |= ROLES[pattern] & wanted;
+            return found[0] != wanted;
+        });
+        return found[0];
+    }
+
+    /**
+     * Mots séparés par des blancs (\s) :
+     * - concept : mot de plus de 3 caractères commençant par une majuscule ou un guillemet,
+     *   réduit à ses lettres (plus de 3), absent des concepts déjà retenus ;
+     * - terme clé : mot réduit à ses lettres et chiffres, commençant par une majuscule, seul
+     *   (plus de 3 caractères) puis suivi des lettres du mot suivant (plus de 8), sans doublon
+     *   à la casse près.
+     */
+    private static void scanWords(String content, List<String> concepts, List<String> keyTerms) {
+        Set<String> conceptSet = new HashSet<>(concepts);
+        Set<String> seenTerms = new HashSet<>();
+        // Mot courant réduit à ses lettres, ou à ses lettres et chiffres ; mot précédent (lettres et chiffres)
+        StringBuilder letters = new StringBuilder(64);
+        StringBuilder alphanumeric = new StringBuilder(64);
+        StringBuilder previous = new StringBuilder(64);
+        StringBuilder pair = new StringBuilder(128);
+
+        int n = content.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && isWhitespace(content.charAt(i))) {
+                i++;
+            }
+            if (i >= n) {
+                break;
+            }
+            int start = i;
+            letters.setLength(0);
+            alphanumeric.setLength(0);
+            while (i < n && !isWhitespace(content.charAt(i))) {
+                char c = content.charAt(i);
+                if (isLetter(c)) {
+                    letters.append(c);
+                    alphanumeric.append(c);
+                } else if (c >= '0' && c <= '9') {
+                    alphanumeric.append(c);
+                }
+                i++;
+            }
+            char first = content.charAt(start);
+
+            if (i - start > 3 && (Character.isUpperCase(first) || first == '"' || first == '\'')
+                    && letters.length() > 3) {
+                String concept = letters.toString();
+                if (conceptSet.add(concept)) {
+                    concepts.add(concept);
+                }
+            }
+
+            // Expression de deux mots : le mot précédent suivi des lettres de celui-ci
+            if (previous.length() > 0 && letters.length() > 0 && Character.isUpperCase(previous.charAt(0))
+                    && previous.length() + 1 + letters.length() > 8) {
+                pair.setLength(0);
+                pair.append(previous).append(' ').append(letters);
+                String twoWords = pair.toString();
+                if (seenTerms.add(twoWords.toLowerCase())) {
+                    keyTerms.add(twoWords);
+                }
+            }
+
+            if (alphanumeric.length() > 3 && Character.isUpperCase(alphanumeric.charAt(0))) {
+                String term = alphanumeric.toString();
+                if (seenTerms.add(term.toLowerCase())) {
+                    keyTerms.add(term);
+                }
+            }
+            previous.setLength(0);
+            previous.append(alphanumeric);
+        }
+    }
+
+    // Classe [a-zA-ZÀ-ÿ] des expressions d'origine
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= 'À' && c <= 'ÿ');
+    }
+
+    // Classe \s : espace, \t, \n, \u000B, \f, \r
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+}
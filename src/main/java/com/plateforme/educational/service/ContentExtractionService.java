@@ -0,0 +1,193 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.entity.Course;
+import com.plateforme.educational.entity.CourseFile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Extraction du texte des pièces jointes d'un cours
+ * Point d'entrée unique utilisé par l'indexation (RAG) et la génération de quiz
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContentExtractionService {
+
+    private final CourseFileService courseFileService;
+    private final OfficeTextExtractor officeTextExtractor;
+    private final ExtractionCache extractionCache;
+    private final MemoryGovernor memoryGovernor;
+
+    /**
+     * Extracteurs disponibles. Incrémenter la version d'un extracteur quand sa sortie change :
+     * seuls les fichiers qu'il traite seront ré-extraits.
+     * La lecture des fichiers texte est directe et n'est pas mise en cache.
+     */
+    private enum Extractor {
+        TEXT("text", 1, false),
+        PDF("pdfbox", 1, true),
+        OFFICE("poi-sax", 1, true);
+
+        private final String id;
+        private final int version;
+        private final boolean cacheable;
+
+        Extractor(String id, int version, boolean cacheable) {
+            this.id = id;
+            this.version = version;
+            this.cacheable = cacheable;
+        }
+    }
+
+    /**
+     * Contenu complet d'un cours : texte saisi, puis texte des pièces jointes
+     * À calculer une fois par indexation et à transmettre au RAG comme à la base de connaissances
+     */
+    public String courseContent(Course course) {
+        String content = course.getContent() != null ? course.getContent() : "";
+        String attachmentsText = extractAttachments(course);
+        if (attachmentsText.isBlank()) {
+            return content;
+        }
+        return content + "\n\n" + attachmentsText;
+    }
+
+    /**
+     * Extrait le texte de toutes les pièces jointes d'un cours
+     */
+    public String extractAttachments(Course course) {
+        StringBuilder content = new StringBuilder();
+        if (course.getFiles() == null) {
+            return "";
+        }
+        for (CourseFile file : course.getFiles()) {
+            String fileContent = extract(file);
+            if (!fileContent.isBlank()) {
+                if (content.length() > 0) {
+                    content.append("\n\n");
+                }
+                content.append(fileContent);
+            }
+        }
+        return content.toString();
+    }
+
+    /**
+     * Extrait le contenu textuel d'un fichier (texte, PDF ou document Office)
+     * Les résultats des extracteurs coûteux sont réutilisés via le cache disque
+     */
+    public String extract(CourseFile file) {
+        if (file == null || file.getStoragePath() == null) {
+            return "";
+        }
+
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        Extractor extractor = selectExtractor(filename, file.getContentType());
+        if (extractor == null) {
+            return "";
+        }
+
+        if (extractor.cacheable) {
+            Optional<String> cached = extractionCache.get(file.getContentHash(), extractor.id, extractor.version);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
+        String text = memoryGovernor.admit("extraction", memoryGovernor.estimateExtractionBytes(file),
+                () -> runExtractor(extractor, file, filename));
+
+        if (extractor.cacheable && !text.isEmpty()) {
+            extractionCache.put(file.getContentHash(), extractor.id, extractor.version, text);
+        }
+        return text;
+    }
+
+    private String runExtractor(Extractor extractor, CourseFile file, String filename) {
+        try {
+            return switch (extractor) {
+                case TEXT -> courseFileService.readText(file);
+                case PDF -> extractPdfContent(file.getStoragePath());
+                case OFFICE -> extractOfficeContent(file, filename);
+            };
+        } catch (Exception e) {
+            log.warn("Erreur lecture fichier {}: {}", file.getOriginalFilename(), e.getMessage());
+            return "";
+        }
+    }
+
+    private Extractor selectExtractor(String filename, String contentType) {
+        if (isTextFile(filename, contentType)) {
+            return Extractor.TEXT;
+        }
+        if (filename.endsWith(".pdf") || (contentType != null && contentType.contains("pdf"))) {
+            return Extractor.PDF;
+        }
+        if (officeTextExtractor.supports(filename)) {
+            return Extractor.OFFICE;
+        }
+        return null;
+    }
+
+    private String extractOfficeContent(CourseFile file, String filename) throws IOException {
+        String text = officeTextExtractor.extract(file.getStoragePath(), filename);
+        log.info("Extracted {} characters from Office document: {}", text.length(), file.getOriginalFilename());
+        return text;
+    }
+
+    /**
+     * Vérifie si un fichier est de type texte
+     */
+    private boolean isTextFile(String filename, String contentType) {
+        if (contentType != null) {
+            if (contentType.startsWith("text/") ||
+                contentType.contains("json") ||
+                (contentType.contains("xml") && !contentType.contains("openxmlformats")) ||
+                contentType.contains("javascript")) {
+                return true;
+            }
+        }
+
+        return filename.endsWith(".txt") || filename.endsWith(".md") ||
+               filename.endsWith(".json") || filename.endsWith(".xml") ||
+               filename.endsWith(".html") || filename.endsWith(".java") ||
+               filename.endsWith(".py") || filename.endsWith(".js") ||
+               filename.endsWith(".css") || filename.endsWith(".sql");
+    }
+
+    /**
+     * Extraction du contenu PDF avec Apache PDFBox
+     */
+    private String extractPdfContent(String path) {
+        try {
+            File pdfFile = new File(path);
+            if (!pdfFile.exists()) {
+                log.warn("PDF file not found: {}", path);
+                return "";
+            }
+
+            try (PDDocument document = Loader.loadPDF(pdfFile)) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                String text = stripper.getText(document);
+
+                // Nettoyer le texte
+                text = text.replaceAll("\\s+", " ").trim();
+
+                log.info("Extracted {} characters from PDF: {}", text.length(), path);
+                return text;
+            }
+        } catch (IOException e) {
+            log.warn("Error extracting PDF content from {}: {}", path, e.getMessage());
+            return "";
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.plateforme.educational.repository.CourseFileRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
@@ -14,13 +15,26 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import jakarta.annotation.PostConstruct;
 
@@ -30,11 +44,25 @@ import jakarta.annotation.PostConstruct;
 @Transactional
 public class CourseFileService {
 
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final int SNIFF_LENGTH = 512;
+    private static final int COPY_BUFFER_SIZE = 8192;
+    private static final byte[] PDF_MAGIC = {'%', 'P', 'D', 'F'};
+    private static final byte[] ZIP_MAGIC = {'P', 'K', 3, 4};
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G'};
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] GIF_MAGIC = {'G', 'I', 'F', '8'};
+
     private final CourseFileRepository courseFileRepository;
+    private final ExecutorService uploadExecutor;
+    private final UploadReaperService uploadReaperService;
 
     @Value("${file.upload-dir:uploads}")
     private String uploadDir;
 
+    @Value("${file.compression.enabled:false}")
+    private boolean compressionEnabled;
+
     private Path uploadRoot;
 
     @PostConstruct
@@ -68,84 +96,305 @@ public class CourseFileService {
             throw new RuntimeException("Impossible de créer le répertoire d'upload", e);
         }
 
+        // Chaque fichier est écrit en parallèle ; hash et type sont calculés pendant la copie
+        List<Future<CourseFile>> pending = new ArrayList<>(validFiles.size());
         for (MultipartFile file : validFiles) {
-            String originalName = StringUtils.cleanPath(file.getOriginalFilename());
-            String storedName = UUID.randomUUID() + "-" + originalName;
-            Path destination = courseDir.resolve(storedName);
+            pending.add(uploadExecutor.submit(() -> streamToDisk(course, file, courseDir)));
+        }
 
+        List<CourseFile> stored = new ArrayList<>(pending.size());
+        RuntimeException failure = null;
+        for (Future<CourseFile> future : pending) {
             try {
-                Files.copy(file.getInputStream(), destination);
-            } catch (IOException e) {
-                throw new RuntimeException("Erreur lors de l'upload du fichier " + originalName, e);
+                stored.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException re ? re
+                            : new RuntimeException("Erreur lors de l'upload", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null) {
+                    failure = new RuntimeException("Upload interrompu", e);
+                }
             }
+        }
 
-            CourseFile courseFile = new CourseFile();
-            courseFile.setCourse(course);
-            courseFile.setOriginalFilename(originalName);
-            courseFile.setStoredFilename(storedName);
-            courseFile.setContentType(file.getContentType() != null ? file.getContentType() : "application/octet-stream");
-            courseFile.setSize(file.getSize());
-            courseFile.setStoragePath(destination.toString());
+        if (failure != null) {
+            // Ne pas laisser de fichiers sans ligne en base
+            uploadReaperService.deleteLater(stored.stream()
+                    .map(file -> Paths.get(file.getStoragePath()))
+                    .toList());
+            throw failure;
+        }
 
-            course.getFiles().add(courseFile);
-            courseFileRepository.save(courseFile);
+        course.getFiles().addAll(stored);
+        courseFileRepository.saveAll(stored);
+    }
+
+    /**
+     * Copie une pièce jointe sur disque en un seul passage :
+     * le SHA-256 et le type réel sont déterminés à la volée
+     */
+    private CourseFile streamToDisk(Course course, MultipartFile file, Path courseDir) {
+        String originalName = StringUtils.cleanPath(file.getOriginalFilename());
+        String storedName = UUID.randomUUID() + "-" + originalName;
+        Path destination = courseDir.resolve(storedName);
+
+        MessageDigest digest = newSha256();
+        String contentType;
+        CourseFile.StorageCodec codec;
+        long size;
+        long storedSize;
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+             OutputStream fileOut = Files.newOutputStream(destination, StandardOpenOption.CREATE_NEW)) {
+            byte[] head = in.readNBytes(SNIFF_LENGTH);
+            contentType = resolveContentType(file.getContentType(), originalName, head);
+            codec = chooseCodec(contentType, originalName);
+
+            OutputStream out = codec == CourseFile.StorageCodec.GZIP
+                    ? new GZIPOutputStream(fileOut, COPY_BUFFER_SIZE)
+                    : fileOut;
+            out.write(head);
+            size = head.length + in.transferTo(out);
+            if (out instanceof GZIPOutputStream gzip) {
+                gzip.finish();
+            }
+            fileOut.flush();
+            storedSize = Files.size(destination);
+        } catch (IOException e) {
+            uploadReaperService.deleteLater(List.of(destination));
+            throw new RuntimeException("Erreur lors de l'upload du fichier " + originalName, e);
         }
+
+        CourseFile courseFile = new CourseFile();
+        courseFile.setCourse(course);
+        courseFile.setOriginalFilename(originalName);
+        courseFile.setStoredFilename(storedName);
+        courseFile.setContentType(contentType);
+        courseFile.setSize(size);
+        courseFile.setStoredSize(storedSize);
+        courseFile.setStorageCodec(codec);
+        courseFile.setStoragePath(destination.toString());
+        courseFile.setContentHash(HexFormat.of().formatHex(digest.digest()));
+        return courseFile;
     }
 
-    public void deleteAllFilesForCourse(Course course) {
-        List<CourseFile> files = courseFileRepository.findByCourse(course);
-        for (CourseFile file : files) {
-            try {
-                Files.deleteIfExists(Paths.get(file.getStoragePath()));
-            } catch (IOException e) {
-                log.warn("Impossible de supprimer le fichier {}", file.getStoragePath(), e);
+    /**
+     * Conserve le type déclaré par le navigateur s'il est précis,
+     * sinon le déduit des premiers octets du fichier
+     */
+    private String resolveContentType(String declared, String filename, byte[] head) {
+        if (declared != null && !declared.isBlank() && !DEFAULT_CONTENT_TYPE.equals(declared)) {
+            return declared;
+        }
+        String sniffed = sniffContentType(head, filename);
+        return sniffed != null ? sniffed : DEFAULT_CONTENT_TYPE;
+    }
+
+    private String sniffContentType(byte[] head, String filename) {
+        String lower = filename.toLowerCase();
+        if (startsWith(head, PDF_MAGIC)) {
+            return "application/pdf";
+        }
+        if (startsWith(head, PNG_MAGIC)) {
+            return "image/png";
+        }
+        if (startsWith(head, JPEG_MAGIC)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, GIF_MAGIC)) {
+            return "image/gif";
+        }
+        if (startsWith(head, ZIP_MAGIC)) {
+            if (lower.endsWith(".docx")) {
+                return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
             }
+            if (lower.endsWith(".pptx")) {
+                return "application/vnd.openxmlformats-officedocument.presentationml.presentation";
+            }
+            if (lower.endsWith(".xlsx")) {
+                return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+            }
+            return "application/zip";
+        }
+        if (looksLikeText(head)) {
+            String byName = URLConnection.guessContentTypeFromName(lower);
+            return byName != null ? byName : "text/plain";
         }
+        return null;
+    }
+
+    /**
+     * Seuls les contenus textuels sont compressés : PDF, images et archives
+     * Office le sont déjà
+     */
+    private CourseFile.StorageCodec chooseCodec(String contentType, String filename) {
+        if (compressionEnabled && isCompressible(contentType, filename)) {
+            return CourseFile.StorageCodec.GZIP;
+        }
+        return CourseFile.StorageCodec.IDENTITY;
+    }
+
+    private boolean isCompressible(String contentType, String filename) {
+        if (isTextType(contentType) || contentType.contains("javascript")) {
+            return true;
+        }
+        String lower = filename.toLowerCase();
+        return lower.endsWith(".txt") || lower.endsWith(".md") ||
+               lower.endsWith(".json") || lower.endsWith(".xml") ||
+               lower.endsWith(".html") || lower.endsWith(".java") ||
+               lower.endsWith(".py") || lower.endsWith(".js") ||
+               lower.endsWith(".css") || lower.endsWith(".sql");
+    }
+
+    private boolean startsWith(byte[] data, byte[] prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean looksLikeText(byte[] head) {
+        if (head.length == 0) {
+            return false;
+        }
+        for (byte b : head) {
+            int c = b & 0xFF;
+            if (c == 0 || (c < 0x20 && c != '\n' && c != '\r' && c != '\t' && c != '\f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Supprime les pièces jointes d'un cours : les lignes sont effacées immédiatement,
+     * les fichiers sont supprimés en arrière-plan après validation de la transaction
+     */
+    public void deleteAllFilesForCourse(Course course) {
+        List<CourseFile> files = courseFileRepository.findByCourse(course);
+        uploadReaperService.deleteAfterCommit(files.stream()
+                .map(file -> Paths.get(file.getStoragePath()))
+                .toList());
         courseFileRepository.deleteAll(files);
         course.getFiles().clear();
     }
 
-    public Resource loadAsResource(Long fileId) {
-        CourseFile file = courseFileRepository.findById(fileId)
-                .orElseThrow(() -> new IllegalArgumentException("Fichier introuvable"));
+    /**
+     * Charge un fichier pour le téléchargement.
+     * Si {@code sendCompressed} est vrai, les octets stockés (déjà compressés) sont
+     * renvoyés tels quels ; sinon le contenu est décompressé à la volée.
+     */
+    public Resource loadForDownload(CourseFile file, boolean sendCompressed) {
         try {
             Path path = Paths.get(file.getStoragePath());
             Resource resource = new UrlResource(path.toUri());
             if (resource.exists() && resource.isReadable()) {
-                return resource;
+                if (!file.isCompressed() || sendCompressed) {
+                    return resource;
+                }
+                return new InputStreamResource(openContent(file));
             }
         } catch (Exception e) {
-            log.error("Erreur lors du chargement du fichier {}", fileId, e);
+            log.error("Erreur lors du chargement du fichier {}", file.getId(), e);
         }
         throw new IllegalArgumentException("Fichier illisible");
     }
 
-    public CourseFile getFile(Long fileId) {
-        return courseFileRepository.findById(fileId)
-                .orElseThrow(() -> new IllegalArgumentException("Fichier introuvable"));
+    /**
+     * Indique si le fichier peut être envoyé compressé au client
+     * (en-tête Accept-Encoding acceptant gzip) ; une entrée gzip explicite l'emporte sur « * »,
+     * quel que soit l'ordre des entrées
+     */
+    public boolean canSendCompressed(CourseFile file, String acceptEncoding) {
+        if (file.getStorageCodec() != CourseFile.StorageCodec.GZIP || acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        Boolean any = null;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim().toLowerCase();
+            boolean accepted = !isRefused(parts);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? accepted : gzip && accepted;
+            } else if (coding.equals("*")) {
+                any = any == null ? accepted : any && accepted;
+            }
+        }
+        if (gzip != null) {
+            return gzip;
+        }
+        return any != null && any;
     }
 
-    public String concatenateTextFiles(Course course) {
-        return course.getFiles().stream()
-                .filter(file -> isTextType(file.getContentType()))
-                .map(file -> readFileSafe(file.getStoragePath()))
-                .filter(content -> !content.isBlank())
-                .collect(Collectors.joining("\n\n"));
+    /**
+     * Vrai si les paramètres d'une entrée Accept-Encoding portent q=0
+     */
+    private static boolean isRefused(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim().replace(" ", "").toLowerCase();
+            if (parameter.startsWith("q=")) {
+                return parameter.matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 
-    private boolean isTextType(String contentType) {
-        if (contentType == null) {
-            return false;
+    /**
+     * Ouvre le contenu d'origine d'un fichier, décompressé si nécessaire
+     */
+    public InputStream openContent(CourseFile file) throws IOException {
+        InputStream raw = Files.newInputStream(Paths.get(file.getStoragePath()));
+        if (file.getStorageCodec() == CourseFile.StorageCodec.GZIP) {
+            try {
+                return new GZIPInputStream(raw, COPY_BUFFER_SIZE);
+            } catch (IOException e) {
+                raw.close();
+                throw e;
+            }
         }
-        return contentType.startsWith("text/") || contentType.contains("json") || contentType.contains("xml");
+        return raw;
     }
 
-    private String readFileSafe(String path) {
-        try {
-            return Files.readString(Paths.get(path), StandardCharsets.UTF_8);
+    /**
+     * Lit le contenu textuel d'un fichier (UTF-8), chaîne vide en cas d'erreur
+     */
+    public String readText(CourseFile file) {
+        try (InputStream in = openContent(file)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
         } catch (IOException e) {
-            log.warn("Lecture impossible pour le fichier {}", path, e);
+            log.warn("Lecture impossible pour le fichier {}", file.getStoragePath(), e);
             return "";
         }
     }
+
+    public CourseFile getFile(Long fileId) {
+        return courseFileRepository.findById(fileId)
+                .orElseThrow(() -> new IllegalArgumentException("Fichier introuvable"));
+    }
+
+    private boolean isTextType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        // Les documents Office (application/vnd.openxmlformats-...) sont des archives ZIP, pas du texte
+        return contentType.startsWith("text/") || contentType.contains("json") ||
+               (contentType.contains("xml") && !contentType.contains("openxmlformats"));
+    }
+
 }
@@ -0,0 +1,180 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.entity.Course;
+import com.plateforme.educational.entity.CourseConcept;
+import com.plateforme.educational.entity.CourseFact;
+import com.plateforme.educational.repository.CourseConceptRepository;
+import com.plateforme.educational.repository.CourseFactRepository;
+import com.plateforme.educational.service.QuizGeneratorAgent.ConceptInfo;
+import com.plateforme.educational.service.QuizGeneratorAgent.FactInfo;
+import com.plateforme.educational.util.AhoCorasick;
+import com.plateforme.educational.util.SentenceSegmenter;
+import com.plateforme.educational.util.SentenceSegmenter.Segmentation;
+import com.plateforme.educational.util.TrigramSimilarity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Base de connaissances d'un cours : concepts et faits extraits une seule fois, à l'indexation
+ * La génération de quiz se contente ensuite d'échantillonner ces listes. Si la base est absente
+ * ou a été produite par une version antérieure du moteur d'extraction, elle est recalculée à la volée.
+ * L'index de distracteurs (plus proches voisins de chaque concept, concept cité par chaque fait)
+ * est calculé en même temps : la génération n'a plus qu'à le lire.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class CourseKnowledgeService {
+
+    private final CourseConceptRepository conceptRepository;
+    private final CourseFactRepository factRepository;
+    private final ConceptExtractionEngine conceptExtractionEngine;
+    private final ContentExtractionService contentExtractionService;
+    private final MemoryGovernor memoryGovernor;
+
+    // Nombre de voisins conservés par concept (autant que de mauvaises réponses)
+    private static final int DISTRACTORS_PER_CONCEPT = 3;
+
+    public record CourseKnowledge(List<ConceptInfo> concepts, List<FactInfo> facts) {}
+
+    /**
+     * Recalcule et enregistre les concepts et faits du cours
+     * courseContent : contenu complet déjà extrait (ContentExtractionService.courseContent)
+     */
+    public void rebuild(Course course, String courseContent) {
+        CourseKnowledge knowledge = extract(course, courseContent);
+        delete(course);
+
+        List<CourseConcept> concepts = new ArrayList<>();
+        for (ConceptInfo info : knowledge.concepts()) {
+            CourseConcept concept = new CourseConcept();
+            concept.setCourse(course);
+            concept.setConceptIndex(concepts.size());
+            concept.setTerm(info.term);
+            concept.setDefinition(info.definition);
+            concept.setContext(info.context);
+            concept.setSource(info.source);
+            concept.setNeighbours(Arrays.stream(info.neighbours).mapToObj(String::valueOf).collect(Collectors.joining(",")));
+            concepts.add(concept);
+        }
+        conceptRepository.saveAll(concepts);
+
+        List<CourseFact> facts = new ArrayList<>();
+        for (FactInfo info : knowledge.facts()) {
+            CourseFact fact = new CourseFact();
+            fact.setCourse(course);
+            fact.setFactIndex(facts.size());
+            fact.setText(info.text);
+            fact.setConceptIndex(info.conceptIndex >= 0 ? info.conceptIndex : null);
+            facts.add(fact);
+        }
+        factRepository.saveAll(facts);
+
+        course.setKnowledgeVersion(ConceptExtractionEngine.VERSION);
+        log.info("Base de connaissances de '{}': {} concepts, {} faits", course.getTitle(), concepts.size(), facts.size());
+    }
+
+    /**
+     * Concepts et faits du cours, lus en base si à jour
+     */
+    @Transactional(readOnly = true)
+    public CourseKnowledge load(Course course) {
+        if (Objects.equals(course.getKnowledgeVersion(), ConceptExtractionEngine.VERSION)) {
+            List<ConceptInfo> concepts = conceptRepository.findByCourseIdOrderByConceptIndex(course.getId()).stream()
+                    .map(CourseKnowledgeService::toConceptInfo)
+                    .collect(Collectors.toList());
+            List<FactInfo> facts = factRepository.findByCourseIdOrderByFactIndex(course.getId()).stream()
+                    .map(CourseKnowledgeService::toFactInfo)
+                    .collect(Collectors.toList());
+            return new CourseKnowledge(concepts, facts);
+        }
+
+        log.info("Base de connaissances absente ou périmée pour '{}', extraction à la volée", course.getTitle());
+        return extract(course, contentExtractionService.courseContent(course));
+    }
+
+    public void delete(Course course) {
+        conceptRepository.deleteByCourse(course);
+        factRepository.deleteByCourse(course);
+    }
+
+    private CourseKnowledge extract(Course course, String courseContent) {
+        return memoryGovernor.admit("knowledge-extraction", memoryGovernor.estimateCourseBytes(course), () -> {
+            String content = withHeading(course, courseContent);
+            log.info("Contenu collecté: {} caractères", content.length());
+            Segmentation segmentation = SentenceSegmenter.segment(content);
+            List<ConceptInfo> concepts = conceptExtractionEngine.extractConcepts(segmentation);
+            List<FactInfo> facts = conceptExtractionEngine.extractFacts(segmentation).stream()
+                    .map(FactInfo::new)
+                    .collect(Collectors.toList());
+            linkDistractors(concepts, facts);
+            return new CourseKnowledge(concepts, facts);
+        });
+    }
+
+    /**
+     * Calcule les plus proches voisins de chaque concept (trigrammes du terme et de la définition)
+     * et le premier concept cité par chaque fait (mot entier)
+     */
+    private void linkDistractors(List<ConceptInfo> concepts, List<FactInfo> facts) {
+        if (concepts.isEmpty()) {
+            return;
+        }
+        List<String> signatures = concepts.stream()
+                .map(c -> c.term + " " + c.definition)
+                .collect(Collectors.toList());
+        int[][] neighbours = TrigramSimilarity.nearestNeighbours(signatures, DISTRACTORS_PER_CONCEPT);
+        for (int i = 0; i < concepts.size(); i++) {
+            concepts.get(i).neighbours = neighbours[i];
+        }
+
+        AhoCorasick terms = new AhoCorasick(concepts.stream().map(c -> c.term).collect(Collectors.toList()));
+        for (FactInfo fact : facts) {
+            String text = fact.text;
+            terms.scan(text, (concept, start, end) -> {
+                boolean wholeWord = (start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1)))
+                        && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)));
+                if (wholeWord) {
+                    fact.conceptIndex = concept;
+                }
+                return !wholeWord;
+            });
+        }
+    }
+
+    private static ConceptInfo toConceptInfo(CourseConcept concept) {
+        ConceptInfo info = new ConceptInfo(concept.getTerm(), concept.getDefinition(), concept.getContext(), concept.getSource());
+        if (concept.getNeighbours() != null && !concept.getNeighbours().isEmpty()) {
+            info.neighbours = Arrays.stream(concept.getNeighbours().split(",")).mapToInt(Integer::parseInt).toArray();
+        }
+        return info;
+    }
+
+    private static FactInfo toFactInfo(CourseFact fact) {
+        FactInfo info = new FactInfo(fact.getText());
+        info.conceptIndex = fact.getConceptIndex() != null ? fact.getConceptIndex() : -1;
+        return info;
+    }
+
+    /**
+     * Titre et description, suivis du contenu complet du cours
+     */
+    private static String withHeading(Course course, String courseContent) {
+        StringBuilder content = new StringBuilder();
+        content.append(course.getTitle()).append("\n\n");
+        if (course.getDescription() != null) {
+            content.append(course.getDescription()).append("\n\n");
+        }
+        content.append(courseContent).append("\n");
+        return content.toString();
+    }
+}
@@ -22,6 +22,10 @@ public class CourseService {
     private final UserRepository userRepository;
     private final RAGService ragService;
     private final CourseFileService courseFileService;
+    private final ContentExtractionService contentExtractionService;
+    private final CourseKnowledgeService courseKnowledgeService;
+    private final QuestionPoolService questionPoolService;
+    private final QuestionHistoryService questionHistoryService;
 
     public Course createCourse(Course course, User creator, List<MultipartFile> files) {
         course.setCreator(creator);
@@ -43,6 +47,8 @@ public class CourseService {
         if (course.isIndexed()) {
             course.setIndexed(false);
         }
+        course.setKnowledgeVersion(null);
+        questionPoolService.invalidate(course);
 
         courseFileService.storeFiles(course, files);
         
@@ -58,6 +64,10 @@ public class CourseService {
             ragService.deleteIndex(course);
         }
 
+        courseKnowledgeService.delete(course);
+        questionPoolService.delete(course);
+        questionHistoryService.deleteForCourse(course);
+
         // Supprimer les pièces jointes
         courseFileService.deleteAllFilesForCourse(course);
         
@@ -146,14 +156,14 @@ public class CourseService {
             throw new IllegalStateException("Cannot index unpublished course");
         }
         
-        String attachmentsText = courseFileService.concatenateTextFiles(course);
-        String combinedContent = course.getContent();
-        if (!attachmentsText.isBlank()) {
-            combinedContent = combinedContent + "\n\n" + attachmentsText;
-        }
+        // Pièces jointes extraites une seule fois pour le RAG et la base de connaissances
+        String combinedContent = contentExtractionService.courseContent(course);
 
         ragService.indexCourse(course, combinedContent);
+        courseKnowledgeService.rebuild(course, combinedContent);
         course.setIndexed(true);
+        // Les questions en réserve portent sur l'ancien contenu
+        questionPoolService.invalidate(course);
         
         return courseRepository.save(course);
     }
@@ -0,0 +1,232 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.util.AhoCorasick;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Détection des définitions « terme marqueur définition » en temps linéaire
+ * Remplace les expressions régulières à groupes (.{3,50}) dont le retour arrière explose
+ * sur les longues lignes de code, les tableaux ou le JSON minifié. Les préfixes et marqueurs
+ * sont localisés en un passage par Aho-Corasick, puis chaque forme est résolue à l'aide de
+ * tables précalculées, sans retour arrière.
+ * Le résultat est celui qu'aurait donné Matcher.find() sur le motif d'origine (premier début
+ * possible, groupes gloutons). Une instance réutilise ses tampons : ne pas la partager entre threads.
+ */
+final class DefinitionScanner {
+
+    @FunctionalInterface
+    interface DefinitionHandler {
+        void onDefinition(String term, String definition);
+    }
+
+    /**
+     * [préfixe \s+] (.{termMin,termMax}) \s{minWs,} marqueur \s{minWs,} (.{definitionMin,definitionMax})
+     * Sans marqueur, le séparateur se réduit à \s{minWs,}
+     */
+    private record Shape(List<String> prefixes, int termMin, int termMax, List<String> markers,
+                         int minWs, int definitionMin, int definitionMax) {}
+
+    private static final List<Shape> SHAPES = List.of(
+        // (.{3,50})\s+(?:est|sont|désigne|représente|signifie|correspond à|se définit comme)\s+(.{10,200})
+        new Shape(List.of(), 3, 50,
+                List.of("est", "sont", "désigne", "représente", "signifie", "correspond à", "se définit comme"), 1, 10, 200),
+        // (?:Un|Une|Le|La|Les)\s+(.{3,40})\s+(?:est|sont)\s+(.{10,200})
+        new Shape(List.of("un", "une", "le", "la", "les"), 3, 40, List.of("est", "sont"), 1, 10, 200),
+        // (.{3,50})\s*:\s*(.{10,200})
+        new Shape(List.of(), 3, 50, List.of(":"), 0, 10, 200),
+        // (?:On appelle|On définit)\s+(.{3,50})\s+(.{10,200})
+        new Shape(List.of("on appelle", "on définit"), 3, 50, List.of(), 1, 10, 200),
+        // (.{3,50})\s*=\s*(.{10,200})
+        new Shape(List.of(), 3, 50, List.of("="), 0, 10, 200)
+    );
+
+    private static final AhoCorasick VOCABULARY;
+    private static final String[] WORDS;   // motifs de l'automate, dans l'ordre de leurs indices
+    private static final int[] MARKER_OF;  // mot -> formes (bit i) dont il est un marqueur
+    private static final int[] PREFIX_OF;  // mot -> formes (bit i) dont il est un préfixe
+
+    static {
+        Map<String, int[]> roles = new LinkedHashMap<>();
+        for (int i = 0; i < SHAPES.size(); i++) {
+            for (String marker : SHAPES.get(i).markers()) {
+                roles.computeIfAbsent(marker, k -> new int[2])[0] |= 1 << i;
+            }
+            for (String prefix : SHAPES.get(i).prefixes()) {
+                roles.computeIfAbsent(prefix, k -> new int[2])[1] |= 1 << i;
+            }
+        }
+        VOCABULARY = new AhoCorasick(new ArrayList<>(roles.keySet()));
+        WORDS = roles.keySet().toArray(new String[0]);
+        MARKER_OF = roles.values().stream().mapToInt(r -> r[0]).toArray();
+        PREFIX_OF = roles.values().stream().mapToInt(r -> r[1]).toArray();
+    }
+
+    // Tampons indexés par position dans la phrase (0..n inclus)
+    private final int[][] markerEnd = new int[SHAPES.size()][];  // fin du marqueur commençant en i, 0 sinon
+    private final int[][] prefixEnd = new int[SHAPES.size()][];  // fin du préfixe suivi d'un blanc, 0 sinon
+    private int[] wsEnd;         // premier indice >= i qui n'est pas un blanc
+    private int[] lineEnd;       // premier indice >= i qui est une fin de ligne (non couverte par '.')
+    private int[] lastOk;        // plus grand g <= i où une définition de longueur minimale peut commencer
+    private int[] lastFeasible;  // plus grande fin de terme <= i suivie d'un séparateur valide
+    private int markersFound;
+    private int prefixesFound;
+
+    /**
+     * Signale, pour chaque forme dans l'ordre, la première définition trouvée dans la phrase
+     */
+    void scan(CharSequence sentence, DefinitionHandler handler) {
+        int n = sentence.length();
+        prepare(n);
+
+        VOCABULARY.scan(sentence, (word, start, end) -> {
+            // L'automate ignore la casse Unicode ; les motifs d'origine ne l'ignoraient qu'en ASCII
+            if (!asciiEqualsIgnoreCase(sentence, start, WORDS[word])) {
+                return true;
+            }
+            for (int i = 0; i < SHAPES.size(); i++) {
+                if ((MARKER_OF[word] & (1 << i)) != 0) {
+                    markerEnd[i][start] = end;
+                    markersFound |= 1 << i;
+                }
+                // (?:Un|Une)\s+ : seule l'alternative suivie d'un blanc peut aboutir
+                if ((PREFIX_OF[word] & (1 << i)) != 0 && end < n && isWhitespace(sentence.charAt(end))) {
+                    prefixEnd[i][start] = end;
+                    prefixesFound |= 1 << i;
+                }
+            }
+            return true;
+        });
+
+        wsEnd[n] = n;
+        lineEnd[n] = n;
+        for (int i = n - 1; i >= 0; i--) {
+            char c = sentence.charAt(i);
+            wsEnd[i] = isWhitespace(c) ? wsEnd[i + 1] : i;
+            lineEnd[i] = isLineTerminator(c) ? i : lineEnd[i + 1];
+        }
+
+        for (int i = 0; i < SHAPES.size(); i++) {
+            Shape shape = SHAPES.get(i);
+            if (!shape.markers().isEmpty() && (markersFound & (1 << i)) == 0) continue;
+            if (!shape.prefixes().isEmpty() && (prefixesFound & (1 << i)) == 0) continue;
+            match(i, shape, sentence, handler);
+        }
+    }
+
+    private void match(int index, Shape shape, CharSequence sentence, DefinitionHandler handler) {
+        int n = sentence.length();
+        for (int g = 0; g <= n; g++) {
+            boolean ok = lineEnd[g] - g >= shape.definitionMin();
+            lastOk[g] = ok ? g : (g > 0 ? lastOk[g - 1] : -1);
+        }
+        for (int e = 0; e <= n; e++) {
+            boolean feasible = e < n && definitionStart(index, shape, sentence, e) >= 0;
+            lastFeasible[e] = feasible ? e : (e > 0 ? lastFeasible[e - 1] : -1);
+        }
+
+        if (shape.prefixes().isEmpty()) {
+            // Premier début possible, puis fin de terme la plus lointaine (quantificateur glouton)
+            for (int s = 0; s + shape.termMin() <= n; s++) {
+                int e = longestTermEnd(shape, s, n);
+                if (e >= 0) {
+                    emit(index, shape, sentence, s, e, handler);
+                    return;
+                }
+            }
+        } else {
+            for (int p = 0; p < n; p++) {
+                int q = prefixEnd[index][p];
+                if (q == 0) continue;
+                // \s+ glouton après le préfixe, rendu caractère par caractère si nécessaire
+                for (int s = wsEnd[q]; s > q; s--) {
+                    int e = longestTermEnd(shape, s, n);
+                    if (e >= 0) {
+                        emit(index, shape, sentence, s, e, handler);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private int longestTermEnd(Shape shape, int start, int n) {
+        int limit = Math.min(Math.min(start + shape.termMax(), lineEnd[start]), n);
+        int e = lastFeasible[limit];
+        return e >= start + shape.termMin() ? e : -1;
+    }
+
+    /**
+     * Début de la définition si le terme se termine en e, -1 si le séparateur ne convient pas
+     */
+    private int definitionStart(int index, Shape shape, CharSequence sentence, int e) {
+        if (shape.minWs() > 0 && !isWhitespace(sentence.charAt(e))) {
+            return -1;
+        }
+        int afterSeparator = e;
+        if (!shape.markers().isEmpty()) {
+            afterSeparator = markerEnd[index][wsEnd[e]];
+            if (afterSeparator == 0) {
+                return -1;
+            }
+        }
+        int g = lastOk[wsEnd[afterSeparator]];
+        return g >= afterSeparator + shape.minWs() ? g : -1;
+    }
+
+    private void emit(int index, Shape shape, CharSequence sentence, int s, int e, DefinitionHandler handler) {
+        int g = definitionStart(index, shape, sentence, e);
+        int end = Math.min(g + shape.definitionMax(), lineEnd[g]);
+        handler.onDefinition(sentence.subSequence(s, e).toString(), sentence.subSequence(g, end).toString());
+    }
+
+    private void prepare(int n) {
+        if (wsEnd == null || wsEnd.length < n + 1) {
+            int capacity = Math.max(n + 1, 512);
+            for (int i = 0; i < SHAPES.size(); i++) {
+                markerEnd[i] = new int[capacity];
+                prefixEnd[i] = new int[capacity];
+            }
+            wsEnd = new int[capacity];
+            lineEnd = new int[capacity];
+            lastOk = new int[capacity];
+            lastFeasible = new int[capacity];
+        } else {
+            for (int i = 0; i < SHAPES.size(); i++) {
+                Arrays.fill(markerEnd[i], 0, n + 1, 0);
+                Arrays.fill(prefixEnd[i], 0, n + 1, 0);
+            }
+        }
+        markersFound = 0;
+        prefixesFound = 0;
+    }
+
+    /**
+     * Égalité au sens de Pattern.CASE_INSENSITIVE sans UNICODE_CASE : seules les lettres ASCII
+     * sont comparées sans tenir compte de la casse
+     */
+    private static boolean asciiEqualsIgnoreCase(CharSequence text, int start, String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = text.charAt(start + i);
+            char w = word.charAt(i);
+            if (c != w && !(c < 128 && Character.toLowerCase(c) == w)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Classe \s de java.util.regex (sans UNICODE_CHARACTER_CLASS)
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    // Caractères non reconnus par '.' (sans DOTALL ni UNIX_LINES)
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == 0x85 || c == 0x2028 || c == 0x2029;
+    }
+}
@@ -0,0 +1,218 @@
+package com.plateforme.educational.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cache disque des textes extraits des pièces jointes
+ * Clé : (empreinte du contenu, extracteur, version de l'extracteur) ; une nouvelle version
+ * d'un extracteur n'invalide que les entrées qu'il produit.
+ * Les entrées sont lues d'un bloc (aucun mapping mémoire, qui garderait le fichier verrouillé
+ * sous Windows jusqu'au passage du GC) ; la taille totale est bornée et les entrées les moins
+ * récemment utilisées sont évincées en premier.
+ */
+@Component
+@Slf4j
+public class ExtractionCache {
+
+    private static final String SUFFIX = ".txt";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    @Value("${extraction.cache.dir:${file.upload-dir:uploads}/cache/extraction}")
+    private String cacheDir;
+
+    @Value("${extraction.cache.max-bytes:536870912}")
+    private long maxBytes;
+
+    @Value("${extraction.cache.enabled:true}")
+    private boolean enabled;
+
+    private Path root;
+
+    // Nom de fichier -> taille, en ordre d'accès (LRU)
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    @PostConstruct
+    void init() {
+        this.root = Paths.get(cacheDir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            log.warn("Cache d'extraction désactivé: répertoire {} inaccessible", root, e);
+            enabled = false;
+            return;
+        }
+        loadIndex();
+    }
+
+    /**
+     * Recharge l'index au démarrage : la date de modification sert d'ordre d'accès
+     * Les fichiers temporaires laissés par une écriture interrompue sont supprimés.
+     */
+    private void loadIndex() {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(root)) {
+            listing.forEach(p -> {
+                String name = p.getFileName().toString();
+                if (name.endsWith(SUFFIX)) {
+                    files.add(p);
+                } else if (name.endsWith(TMP_SUFFIX)) {
+                    deleteFile(name);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Lecture de l'index du cache d'extraction impossible", e);
+            return;
+        }
+        files.sort(Comparator.comparing(ExtractionCache::lastModified));
+
+        synchronized (entries) {
+            for (Path file : files) {
+                long size = sizeOf(file);
+                entries.put(file.getFileName().toString(), size);
+                totalBytes += size;
+            }
+            evictIfNeeded();
+        }
+        log.info("Cache d'extraction: {} entrée(s), {} octets", files.size(), totalBytes);
+    }
+
+    public Optional<String> get(String contentHash, String extractorId, int extractorVersion) {
+        if (!enabled || contentHash == null) {
+            return Optional.empty();
+        }
+        String name = entryName(contentHash, extractorId, extractorVersion);
+        synchronized (entries) {
+            if (entries.get(name) == null) {
+                return Optional.empty();
+            }
+        }
+
+        Path file = root.resolve(name);
+        try {
+            String text = Files.readString(file, StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return Optional.of(text);
+        } catch (IOException e) {
+            log.debug("Entrée de cache illisible {}: {}", name, e.getMessage());
+            forget(name);
+            return Optional.empty();
+        }
+    }
+
+    public void put(String contentHash, String extractorId, int extractorVersion, String text) {
+        if (!enabled || contentHash == null) {
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            return;
+        }
+        String name = entryName(contentHash, extractorId, extractorVersion);
+        Path target = root.resolve(name);
+        Path tmp = null;
+        try {
+            // Écriture atomique : un lecteur ne voit jamais une entrée partielle
+            tmp = Files.createTempFile(root, name, TMP_SUFFIX);
+            Files.write(tmp, bytes);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Écriture dans le cache d'extraction impossible pour {}", name, e);
+            if (tmp != null) {
+                deleteFile(tmp.getFileName().toString());
+            }
+            return;
+        }
+
+        synchronized (entries) {
+            Long previous = entries.put(name, (long) bytes.length);
+            totalBytes += bytes.length - (previous != null ? previous : 0L);
+            removeOtherVersions(contentHash, extractorId, extractorVersion);
+            evictIfNeeded();
+        }
+    }
+
+    /**
+     * Supprime les résultats produits par une version antérieure du même extracteur
+     */
+    private void removeOtherVersions(String contentHash, String extractorId, int extractorVersion) {
+        String prefix = contentHash + "." + extractorId + ".v";
+        String current = entryName(contentHash, extractorId, extractorVersion);
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            if (entry.getKey().startsWith(prefix) && !entry.getKey().equals(current)) {
+                it.remove();
+                totalBytes -= entry.getValue();
+                deleteFile(entry.getKey());
+            }
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.getValue();
+            deleteFile(eldest.getKey());
+        }
+    }
+
+    private void forget(String name) {
+        synchronized (entries) {
+            Long size = entries.remove(name);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+    }
+
+    private void deleteFile(String name) {
+        try {
+            Files.deleteIfExists(root.resolve(name));
+        } catch (IOException e) {
+            log.debug("Suppression de l'entrée {} impossible: {}", name, e.getMessage());
+        }
+    }
+
+    private String entryName(String contentHash, String extractorId, int extractorVersion) {
+        return contentHash + "." + extractorId + ".v" + extractorVersion + SUFFIX;
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.util.Deadline;
+
+import java.util.List;
+
+/**
+ * Demande de génération de quiz, transmise telle quelle jusqu'au modèle
+ * Le contexte reste découpé en passages (chunks du cours, dans l'ordre) : le prompt n'est rendu
+ * qu'au moment de l'appel réseau, dans la limite de tokenBudget tokens (consignes, contexte et
+ * réponse attendue), et la génération locale lit directement les passages.
+ * L'échéance est celle de la requête HTTP d'origine : les appels au modèle s'y arrêtent.
+ * Une demande reproductible (graine fournie par l'appelant) n'est jamais regroupée avec d'autres.
+ */
+public record GenerationRequest(List<String> context, String difficulty, int numberOfQuestions,
+                                long seed, boolean reproducible, int tokenBudget, Deadline deadline) {
+
+    public GenerationRequest {
+        context = List.copyOf(context);
+        if (deadline == null) {
+            deadline = Deadline.none();
+        }
+        if (numberOfQuestions < 1) {
+            throw new IllegalArgumentException("Nombre de questions invalide: " + numberOfQuestions);
+        }
+        if (tokenBudget < 1) {
+            throw new IllegalArgumentException("Budget de tokens invalide: " + tokenBudget);
+        }
+    }
+
+    /**
+     * Taille totale du contexte, en caractères
+     */
+    public int contextLength() {
+        int length = 0;
+        for (String passage : context) {
+            length += passage.length();
+        }
+        return length;
+    }
+}
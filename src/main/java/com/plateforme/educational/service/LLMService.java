@@ -1,173 +1,368 @@
 package com.plateforme.educational.service;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import com.plateforme.educational.util.ContentHash;
+import com.plateforme.educational.util.Deadline;
+import com.plateforme.educational.util.SingleFlight;
+import com.plateforme.educational.llm.BpeTokenCounter;
+import com.plateforme.educational.llm.LLMCallGuard;
+import com.plateforme.educational.llm.LLMClient;
+import com.plateforme.educational.llm.LLMDispatcher;
+import com.plateforme.educational.llm.LLMException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.StringReader;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Service LLM (Large Language Model)
  * Gère l'interaction avec le modèle de langage pour la génération de quiz
  * 
- * Note: Cette implémentation est une version simplifiée/simulée
- * Dans un environnement de production, intégrer OpenAI API ou Ollama
+ * Le modèle est interrogé via le LLMClient configuré (llm.provider : openai ou ollama) ;
+ * sans fournisseur, ou si l'appel échoue, les questions sont générées localement (mode simulé)
+ * Les appels passent par LLMDispatcher (nouveaux essais, requête doublée, échéance) puis par
+ * LLMCallGuard (limite de concurrence, disjoncteur) ; chaque repli est compté.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class LLMService {
 
-    @Value("${spring.ai.openai.api-key:}")
-    private String apiKey;
+    private final Optional<LLMClient> llmClient;
+    private final MeterRegistry meterRegistry;
+    private final PromptCache promptCache;
+    private final LLMCallGuard llmCallGuard;
+    private final LLMDispatcher llmDispatcher;
 
-    private final Gson gson = new Gson();
+    private final BpeTokenCounter tokenCounter;
+
+    // Fenêtre du modèle (tokens) : consignes, contexte et réponse attendue
+    @Value("${llm.prompt.max-tokens:8192}")
+    private int maxTokens;
+
+    // Tokens réservés à la réponse, par question demandée
+    @Value("${llm.prompt.output-tokens-per-question:160}")
+    private int outputTokensPerQuestion;
+
+    // En dessous, le contexte est trop réduit pour le modèle : génération locale
+    @Value("${llm.prompt.min-context-tokens:512}")
+    private int minContextTokens;
+
+    // Générations identiques en cours, partagées entre les étudiants qui les demandent au même moment
+    private final SingleFlight<QuizKey, List<QuizQuestionDTO>> inFlight = new SingleFlight<>();
 
     /**
-     * Génère des questions de quiz basées sur le contexte fourni
+     * Clé de regroupement : même contexte (empreinte et longueur), même niveau, même nombre de questions
      */
-    public List<QuizQuestionDTO> generateQuizQuestions(
-            String courseContext, 
-            int numberOfQuestions, 
-            String difficulty) {
-        
-        log.info("Generating {} questions with difficulty: {}", numberOfQuestions, difficulty);
-        
-        // Construction du prompt pour le LLM
-        String prompt = buildQuizPrompt(courseContext, numberOfQuestions, difficulty);
-        
-        // Appel au LLM (version simulée)
-        String llmResponse = callLLM(prompt);
-        
-        // Parser la réponse
-        return parseQuizResponse(llmResponse, numberOfQuestions);
+    private record QuizKey(String difficulty, int numberOfQuestions, long contextHash, int contextLength) {}
+
+    // Consignes et format de réponse, après le contexte
+    private static final String PROMPT_INSTRUCTIONS = """
+
+
+            INSTRUCTIONS IMPORTANTES:
+            1. Chaque question doit avoir exactement 4 options de réponse
+            2. Une seule option est correcte
+            3. Les options incorrectes doivent être plausibles
+            4. Fournis une explication pour chaque question
+            5. Base-toi UNIQUEMENT sur le contenu du cours fourni
+            6. Ne génère PAS de questions sur des connaissances externes
+
+            FORMAT DE RÉPONSE (JSON):
+            [
+              {
+                "question": "Texte de la question?",
+                "options": ["Option A", "Option B", "Option C", "Option D"],
+                "correctAnswerIndex": 0,
+                "explanation": "Explication de la réponse correcte"
+              }
+            ]
+            """;
+
+    // Séparateur entre deux passages ("\n\n")
+    private static final int SEPARATOR_TOKENS = 1;
+
+    /**
+     * Demande de génération pour ce contexte, avec le budget de prompt configuré
+     */
+    public GenerationRequest request(List<String> context, String difficulty, int numberOfQuestions, long seed,
+                                     boolean reproducible, Deadline deadline) {
+        return new GenerationRequest(context, difficulty, numberOfQuestions, seed, reproducible, maxTokens, deadline);
     }
 
     /**
-     * Construit le prompt pour le LLM
+     * Génère des questions de quiz basées sur le contexte de la demande
+     * La graine rend la génération simulée reproductible. Les demandes identiques simultanées
+     * partagent un seul appel au modèle ; chacune reçoit sa propre permutation des questions et des options.
+     * Les demandes reproductibles ne sont pas regroupées : le résultat ne dépend que de leur graine.
+     * Un appelant qui attend l'appel d'un autre n'attend que jusqu'à sa propre échéance.
      */
-    private String buildQuizPrompt(String courseContext, int numberOfQuestions, String difficulty) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("Tu es un assistant pédagogique expert. ");
-        prompt.append("À partir du contenu de cours suivant, génère exactement ");
-        prompt.append(numberOfQuestions);
-        prompt.append(" questions de type QCM (questions à choix multiples).\n\n");
-        prompt.append("Niveau de difficulté: ").append(difficulty).append("\n\n");
-        prompt.append("CONTENU DU COURS:\n");
-        prompt.append(courseContext);
-        prompt.append("\n\n");
-        prompt.append("INSTRUCTIONS IMPORTANTES:\n");
-        prompt.append("1. Chaque question doit avoir exactement 4 options de réponse\n");
-        prompt.append("2. Une seule option est correcte\n");
-        prompt.append("3. Les options incorrectes doivent être plausibles\n");
-        prompt.append("4. Fournis une explication pour chaque question\n");
-        prompt.append("5. Base-toi UNIQUEMENT sur le contenu du cours fourni\n");
-        prompt.append("6. Ne génère PAS de questions sur des connaissances externes\n\n");
-        prompt.append("FORMAT DE RÉPONSE (JSON):\n");
-        prompt.append("[\n");
-        prompt.append("  {\n");
-        prompt.append("    \"question\": \"Texte de la question?\",\n");
-        prompt.append("    \"options\": [\"Option A\", \"Option B\", \"Option C\", \"Option D\"],\n");
-        prompt.append("    \"correctAnswerIndex\": 0,\n");
-        prompt.append("    \"explanation\": \"Explication de la réponse correcte\"\n");
-        prompt.append("  }\n");
-        prompt.append("]\n");
-        
-        return prompt.toString();
+    public List<QuizQuestionDTO> generateQuizQuestions(GenerationRequest request) {
+        int numberOfQuestions = request.numberOfQuestions();
+        String difficulty = request.difficulty();
+        log.info("Generating {} questions with difficulty: {} (seed {})", numberOfQuestions, difficulty, request.seed());
+
+        QuizKey key = new QuizKey(difficulty.toUpperCase(), numberOfQuestions,
+                ContentHash.of(request.context()), request.contextLength());
+        Supplier<List<QuizQuestionDTO>> generation = () -> {
+            if (llmClient.isEmpty()) {
+                log.warn("Using simulated LLM response. Set llm.provider (openai, ollama) for real LLM integration.");
+                return generateLocalQuestions(request);
+            }
+            // Appel au LLM, génération locale en cas d'échec ou en complément d'une réponse incomplète
+            return callLLM(request)
+                    .map(questions -> completeLocally(questions, request))
+                    .orElseGet(() -> generateLocalQuestions(request));
+        };
+        if (request.reproducible()) {
+            return shuffledCopy(generation.get(), request.seed());
+        }
+        SingleFlight.Outcome<List<QuizQuestionDTO>> outcome = inFlight.execute(key, generation, request.deadline());
+        if (outcome.shared()) {
+            log.debug("Génération partagée ({} questions, {})", numberOfQuestions, difficulty);
+            Counter.builder("quiz.generation.coalesced")
+                    .tag("generator", "llm")
+                    .register(meterRegistry)
+                    .increment();
+        }
+        return shuffledCopy(outcome.value(), request.seed());
     }
 
     /**
-     * Appel au LLM (version simulée)
-     * IMPORTANT: Dans un environnement de production, remplacer par un vrai appel API
+     * Copie indépendante des questions, ordre des questions et des options mélangé selon la graine
      */
-    private String callLLM(String prompt) {
-        log.warn("Using simulated LLM response. Configure OpenAI API key for real LLM integration.");
-        
-        // Simulation de questions (à remplacer par un vrai appel LLM)
-        return generateSimulatedQuestions(prompt);
+    private static List<QuizQuestionDTO> shuffledCopy(List<QuizQuestionDTO> questions, long seed) {
+        java.util.Random random = new java.util.Random(seed);
+        List<QuizQuestionDTO> copy = new ArrayList<>(questions.size());
+        for (QuizQuestionDTO question : questions) {
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < question.getOptions().size(); i++) {
+                order.add(i);
+            }
+            Collections.shuffle(order, random);
+
+            QuizQuestionDTO shuffled = new QuizQuestionDTO();
+            shuffled.setQuestion(question.getQuestion());
+            List<String> options = new ArrayList<>(order.size());
+            for (int i : order) {
+                options.add(question.getOptions().get(i));
+            }
+            shuffled.setOptions(options);
+            shuffled.setCorrectAnswerIndex(order.indexOf(question.getCorrectAnswerIndex()));
+            shuffled.setExplanation(question.getExplanation());
+            copy.add(shuffled);
+        }
+        Collections.shuffle(copy, random);
+        return copy;
     }
 
     /**
-     * Génère des questions basées sur le contenu réel du cours
+     * Génère les questions en flux : chacune est transmise dès qu'elle est lue dans la réponse du modèle
+     * Si le modèle échoue ou en produit trop peu, le complément est généré localement.
      */
-    private String generateSimulatedQuestions(String prompt) {
-        // Extraire le nombre de questions demandé
-        int numberOfQuestions = extractNumberOfQuestions(prompt);
-        
-        // Extraire le contenu du cours du prompt
-        String courseContent = extractCourseContent(prompt);
-        String difficulty = extractDifficulty(prompt);
-        
-        // Générer des questions basées sur le contenu réel
-        List<QuestionTemplate> generatedQuestions = generateQuestionsFromContent(courseContent, numberOfQuestions, difficulty);
-        
-        JsonArray questions = new JsonArray();
-        
-        for (QuestionTemplate qt : generatedQuestions) {
-            JsonObject question = new JsonObject();
-            question.addProperty("question", qt.question);
-            
-            JsonArray options = new JsonArray();
-            for (String option : qt.options) {
-                options.add(option);
+    public void streamQuizQuestions(GenerationRequest request, Consumer<QuizQuestionDTO> onQuestion) {
+        int numberOfQuestions = request.numberOfQuestions();
+        log.info("Streaming {} questions with difficulty: {} (seed {})", numberOfQuestions, request.difficulty(), request.seed());
+
+        int emitted = 0;
+        Optional<String> rendered = llmClient.isPresent() ? renderPrompt(request) : Optional.empty();
+        if (rendered.isPresent()) {
+            LLMClient client = llmClient.get();
+            String prompt = rendered.get();
+            QuizResponseStreamParser parser = new QuizResponseStreamParser(numberOfQuestions, onQuestion);
+            Optional<String> cached = promptCache.get(client.model(), prompt);
+            if (cached.isPresent()) {
+                parser.feed(cached.get());
+            } else {
+                StringBuilder response = new StringBuilder();
+                try {
+                    llmDispatcher.stream(client, prompt, request.seed(), request.deadline(), text -> {
+                        response.append(text);
+                        parser.feed(text);
+                    });
+                    if (parser.emitted() >= numberOfQuestions) {
+                        promptCache.put(client.model(), prompt, response.toString());
+                    } else {
+                        llmCallGuard.recordFallback("incomplete");
+                    }
+                } catch (LLMException e) {
+                    log.warn("Modèle {} indisponible après {} question(s), génération locale: {}",
+                            client.model(), parser.emitted(), e.getMessage());
+                    llmCallGuard.recordFallback(e);
+                }
             }
-            
-            question.add("options", options);
-            question.addProperty("correctAnswerIndex", qt.correctIndex);
-            question.addProperty("explanation", qt.explanation);
-            
-            questions.add(question);
+            emitted = parser.emitted();
+        }
+
+        if (emitted < numberOfQuestions) {
+            generateLocalQuestions(request).stream()
+                    .skip(emitted)
+                    .forEach(onQuestion);
         }
-        
-        return gson.toJson(questions);
     }
-    
+
     /**
-     * Extrait le contenu du cours depuis le prompt
+     * Construit le prompt pour le LLM, au moment de l'appel
+     * Le budget de tokens de la demande est réparti entre les consignes (comptées), la réponse attendue
+     * (output-tokens-per-question par question) et le contexte, qui reçoit le reste : les passages sont
+     * repris dans l'ordre tant qu'ils tiennent entiers, le premier est tronqué s'il dépasse à lui seul.
+     * Vide (repli compté) s'il reste moins de min-context-tokens pour le contexte : trop de questions
+     * demandées pour la fenêtre du modèle.
      */
-    private String extractCourseContent(String prompt) {
-        try {
-            int startIndex = prompt.indexOf("CONTENU DU COURS:");
-            int endIndex = prompt.indexOf("INSTRUCTIONS IMPORTANTES:");
-            
-            if (startIndex != -1 && endIndex != -1) {
-                return prompt.substring(startIndex + 17, endIndex).trim();
+    private Optional<String> renderPrompt(GenerationRequest request) {
+        StringBuilder head = new StringBuilder(256);
+        head.append("Tu es un assistant pédagogique expert. ");
+        head.append("À partir du contenu de cours suivant, génère exactement ");
+        head.append(request.numberOfQuestions());
+        head.append(" questions de type QCM (questions à choix multiples).\n\n");
+        head.append("Niveau de difficulté: ").append(request.difficulty()).append("\n\n");
+        head.append("CONTENU DU COURS:\n");
+
+        int instructionTokens = tokenCounter.count(head) + tokenCounter.count(PROMPT_INSTRUCTIONS);
+        int outputTokens = request.numberOfQuestions() * outputTokensPerQuestion;
+        int contextTokens = request.tokenBudget() - instructionTokens - outputTokens;
+        if (contextTokens < minContextTokens) {
+            log.warn("Budget du prompt insuffisant pour {} questions ({} tokens de contexte sur {}), génération locale",
+                    request.numberOfQuestions(), contextTokens, request.tokenBudget());
+            llmCallGuard.recordFallback("prompt_budget");
+            return Optional.empty();
+        }
+        List<String> passages = fitContext(request.context(), contextTokens);
+
+        StringBuilder prompt = new StringBuilder(head.length() + PROMPT_INSTRUCTIONS.length()
+                + passages.stream().mapToInt(passage -> passage.length() + 2).sum());
+        prompt.append(head);
+        prompt.append(String.join("\n\n", passages));
+        prompt.append(PROMPT_INSTRUCTIONS);
+        return Optional.of(prompt.toString());
+    }
+
+    /**
+     * Passages qui tiennent dans le budget de tokens, dans l'ordre
+     */
+    private List<String> fitContext(List<String> context, int budget) {
+        List<String> passages = new ArrayList<>();
+        int used = 0;
+        for (String passage : context) {
+            int tokens = tokenCounter.count(passage) + (passages.isEmpty() ? 0 : SEPARATOR_TOKENS);
+            if (used + tokens > budget) {
+                if (passages.isEmpty() && budget > 0) {
+                    passages.add(truncateToTokens(passage, budget));
+                }
+                break;
+            }
+            passages.add(passage);
+            used += tokens;
+        }
+        if (passages.size() < context.size()) {
+            log.info("Contexte réduit à {} passage(s) sur {} pour tenir dans {} tokens", passages.size(), context.size(), budget);
+            Counter.builder("llm.prompt.truncated")
+                    .description("Prompts dont le contexte a été réduit pour tenir dans le budget")
+                    .register(meterRegistry)
+                    .increment();
+        }
+        return passages;
+    }
+
+    /**
+     * Plus long préfixe du passage (coupé sur un blanc) qui tient dans le budget
+     */
+    private String truncateToTokens(String passage, int budget) {
+        int low = 0;
+        int high = passage.length();
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (tokenCounter.count(passage.subSequence(0, mid)) <= budget) {
+                low = mid;
+            } else {
+                high = mid - 1;
             }
-        } catch (Exception e) {
-            log.warn("Could not extract course content from prompt");
         }
-        return "";
+        int cut = low;
+        while (cut > 0 && cut < passage.length() && !Character.isWhitespace(passage.charAt(cut))) {
+            cut--;
+        }
+        return passage.substring(0, cut > 0 ? cut : low);
     }
-    
+
     /**
-     * Extrait la difficulté du prompt
+     * Vrai si la génération doit passer par le modèle : fournisseur configuré et disjoncteur fermé
+     * Un disjoncteur ouvert est compté comme repli : l'appelant utilise les générateurs locaux.
      */
-    private String extractDifficulty(String prompt) {
+    public boolean useModel() {
+        if (llmClient.isEmpty()) {
+            return false;
+        }
+        if (llmCallGuard.isOpen()) {
+            llmCallGuard.recordFallback("circuit_open");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Appel au LLM configuré : questions valides de la réponse, lue une seule fois
+     * Vide si le prompt ne tient pas dans le budget, si l'appel échoue ou est refusé (repli compté).
+     * Nouveaux essais et requête doublée (LLMDispatcher) dans l'échéance de la demande.
+     * Les réponses du modèle sont mises en cache par prompt (PromptCache), si elles sont complètes.
+     */
+    private Optional<List<QuizQuestionDTO>> callLLM(GenerationRequest request) {
+        LLMClient client = llmClient.get();
+        Optional<String> rendered = renderPrompt(request);
+        if (rendered.isEmpty()) {
+            return Optional.empty();
+        }
+        String prompt = rendered.get();
+        Optional<String> cached = promptCache.get(client.model(), prompt);
+        if (cached.isPresent()) {
+            return Optional.of(parseQuizResponse(cached.get(), request.numberOfQuestions()));
+        }
         try {
-            int startIndex = prompt.indexOf("Niveau de difficulté: ");
-            if (startIndex != -1) {
-                int endIndex = prompt.indexOf("\n", startIndex);
-                if (endIndex != -1) {
-                    return prompt.substring(startIndex + 22, endIndex).trim();
-                }
+            String response = llmDispatcher.complete(client, prompt, request.seed(), request.deadline());
+            List<QuizQuestionDTO> questions = parseQuizResponse(response, request.numberOfQuestions());
+            if (questions.size() >= request.numberOfQuestions()) {
+                promptCache.put(client.model(), prompt, response);
             }
-        } catch (Exception e) {
-            log.warn("Could not extract difficulty from prompt");
+            return Optional.of(questions);
+        } catch (LLMException e) {
+            log.warn("Modèle {} indisponible, génération locale: {}", client.model(), e.getMessage());
+            llmCallGuard.recordFallback(e);
+            return Optional.empty();
         }
-        return "BEGINNER";
     }
-    
+
+    /**
+     * Génération locale (mode simulé), à partir des passages de la demande
+     */
+    private List<QuizQuestionDTO> generateLocalQuestions(GenerationRequest request) {
+        String content = String.join("\n\n", request.context());
+        List<QuizQuestionDTO> questions = new ArrayList<>(request.numberOfQuestions());
+        for (QuestionTemplate qt : generateQuestionsFromContent(content, request.numberOfQuestions(),
+                request.difficulty(), request.seed())) {
+            QuizQuestionDTO dto = new QuizQuestionDTO();
+            dto.setQuestion(qt.question);
+            dto.setOptions(new ArrayList<>(Arrays.asList(qt.options)));
+            dto.setCorrectAnswerIndex(qt.correctIndex);
+            dto.setExplanation(qt.explanation);
+            questions.add(dto);
+        }
+        return questions;
+    }
+
     /**
      * Génère des questions à partir du contenu réel du cours
      */
-    private List<QuestionTemplate> generateQuestionsFromContent(String content, int count, String difficulty) {
+    private List<QuestionTemplate> generateQuestionsFromContent(String content, int count, String difficulty, long seed) {
         List<QuestionTemplate> questions = new ArrayList<>();
         
         if (content == null || content.isEmpty()) {
@@ -178,17 +373,18 @@ public class LLMService {
             return questions;
         }
         
-        // Extraire les concepts clés du contenu
-        List<String> concepts = extractKeyConcepts(content);
-        List<String> sentences = extractImportantSentences(content);
-        List<String> definitions = extractDefinitions(content);
-        List<String> keyTerms = extractKeyTerms(content);
+        // Extraire les concepts clés du contenu (une seule analyse pour les quatre listes)
+        ContentAnalysis analysis = ContentAnalysis.of(content);
+        List<String> concepts = analysis.concepts();
+        List<String> sentences = analysis.sentences();
+        List<String> definitions = analysis.definitions();
+        List<String> keyTerms = analysis.keyTerms();
         
         log.info("Extracted {} concepts, {} sentences, {} definitions, {} key terms from course content", 
                 concepts.size(), sentences.size(), definitions.size(), keyTerms.size());
         
         // Générer des questions variées basées sur le contenu
-        java.util.Random random = new java.util.Random();
+        java.util.Random random = new java.util.Random(seed);
         
         for (int i = 0; i < count; i++) {
             QuestionTemplate qt;
@@ -234,154 +430,6 @@ public class LLMService {
         return questions;
     }
 
-    /**
-     * Extrait les définitions du contenu
-     */
-    private List<String> extractDefinitions(String content) {
-        List<String> definitions = new ArrayList<>();
-        
-        if (content == null || content.isEmpty()) {
-            return definitions;
-        }
-        
-        String[] definitionPatterns = {
-            "est défini comme", "se définit comme", "est un", "est une",
-            "représente", "désigne", "signifie", "correspond à",
-            "on appelle", "on définit", "c'est", "il s'agit de"
-        };
-        
-        String[] lines = content.split("[.!?\\n]");
-        
-        for (String line : lines) {
-            String trimmedLine = line.trim();
-            if (trimmedLine.length() > 30 && trimmedLine.length() < 300) {
-                for (String pattern : definitionPatterns) {
-                    if (trimmedLine.toLowerCase().contains(pattern)) {
-                        definitions.add(trimmedLine);
-                        break;
-                    }
-                }
-            }
-        }
-        
-        return definitions;
-    }
-
-    /**
-     * Extrait les termes clés du contenu
-     */
-    private List<String> extractKeyTerms(String content) {
-        List<String> terms = new ArrayList<>();
-        Set<String> seen = new HashSet<>();
-        
-        if (content == null || content.isEmpty()) {
-            return terms;
-        }
-        
-        // Rechercher les mots en majuscules, entre guillemets, ou techniques
-        String[] words = content.split("\\s+");
-        
-        for (int i = 0; i < words.length; i++) {
-            String word = words[i].replaceAll("[^a-zA-ZÀ-ÿ0-9]", "");
-            
-            // Skip empty words
-            if (word.isEmpty()) continue;
-            
-            if (word.length() > 3) {
-                // Mots commençant par majuscule (termes techniques)
-                if (Character.isUpperCase(word.charAt(0)) && !seen.contains(word.toLowerCase())) {
-                    terms.add(word);
-                    seen.add(word.toLowerCase());
-                }
-            }
-            
-            // Expressions de 2-3 mots importantes
-            if (i < words.length - 1 && word.length() > 0) {
-                String nextWord = words[i + 1].replaceAll("[^a-zA-ZÀ-ÿ]", "");
-                if (!nextWord.isEmpty()) {
-                    String twoWords = word + " " + nextWord;
-                    if (twoWords.length() > 8 && !seen.contains(twoWords.toLowerCase())) {
-                        if (Character.isUpperCase(word.charAt(0))) {
-                            terms.add(twoWords);
-                            seen.add(twoWords.toLowerCase());
-                        }
-                    }
-                }
-            }
-        }
-        
-        return terms;
-    }
-    
-    /**
-     * Extrait les concepts clés du contenu
-     */
-    private List<String> extractKeyConcepts(String content) {
-        List<String> concepts = new ArrayList<>();
-        
-        if (content == null || content.isEmpty()) {
-            return concepts;
-        }
-        
-        // Mots-clés techniques courants à rechercher
-        String[] technicalPatterns = {
-            "est un", "est une", "permet de", "consiste à", "définit", 
-            "représente", "signifie", "désigne", "correspond à"
-        };
-        
-        String[] lines = content.split("[.!?\\n]");
-        
-        for (String line : lines) {
-            line = line.trim();
-            if (line.length() > 20 && line.length() < 200) {
-                for (String pattern : technicalPatterns) {
-                    if (line.toLowerCase().contains(pattern)) {
-                        concepts.add(line);
-                        break;
-                    }
-                }
-            }
-        }
-        
-        // Extraire aussi les mots en majuscules ou entre guillemets
-        String[] words = content.split("\\s+");
-        for (String word : words) {
-            if (word == null || word.isEmpty()) continue;
-            
-            if (word.length() > 3 && (Character.isUpperCase(word.charAt(0)) || 
-                word.startsWith("\"") || word.startsWith("'"))) {
-                String cleanWord = word.replaceAll("[^a-zA-ZÀ-ÿ]", "");
-                if (cleanWord.length() > 3 && !concepts.contains(cleanWord)) {
-                    concepts.add(cleanWord);
-                }
-            }
-        }
-        
-        return concepts;
-    }
-    
-    /**
-     * Extrait les phrases importantes du contenu
-     */
-    private List<String> extractImportantSentences(String content) {
-        List<String> sentences = new ArrayList<>();
-        
-        if (content == null || content.isEmpty()) {
-            return sentences;
-        }
-        
-        String[] parts = content.split("[.!?]");
-        
-        for (String part : parts) {
-            String sentence = part.trim();
-            if (sentence.length() > 30 && sentence.length() < 250) {
-                sentences.add(sentence);
-            }
-        }
-        
-        return sentences;
-    }
-    
     /**
      * Génère une question de type définition
      */
@@ -676,72 +724,33 @@ public class LLMService {
     }
 
     /**
-     * Parse la réponse du LLM
+     * Parse la réponse du LLM, question par question ; une réponse tronquée garde ses questions valides
      */
     private List<QuizQuestionDTO> parseQuizResponse(String response, int expectedQuestions) {
         List<QuizQuestionDTO> questions = new ArrayList<>();
-        
-        try {
-            JsonArray jsonArray = gson.fromJson(response, JsonArray.class);
-            
-            for (int i = 0; i < Math.min(jsonArray.size(), expectedQuestions); i++) {
-                JsonObject jsonQuestion = jsonArray.get(i).getAsJsonObject();
-                
-                QuizQuestionDTO dto = new QuizQuestionDTO();
-                dto.setQuestion(jsonQuestion.get("question").getAsString());
-                dto.setCorrectAnswerIndex(jsonQuestion.get("correctAnswerIndex").getAsInt());
-                dto.setExplanation(jsonQuestion.get("explanation").getAsString());
-                
-                List<String> options = new ArrayList<>();
-                JsonArray jsonOptions = jsonQuestion.getAsJsonArray("options");
-                for (int j = 0; j < jsonOptions.size(); j++) {
-                    options.add(jsonOptions.get(j).getAsString());
-                }
-                dto.setOptions(options);
-                
-                questions.add(dto);
-            }
-        } catch (Exception e) {
-            log.error("Error parsing LLM response: {}", e.getMessage());
-            // En cas d'erreur, retourner des questions par défaut
-            return generateFallbackQuestions(expectedQuestions);
-        }
-        
+        new QuizResponseStreamParser(expectedQuestions, questions::add).parse(new StringReader(response));
         return questions;
     }
 
     /**
-     * Extrait le nombre de questions du prompt
+     * Complète une réponse incomplète (tronquée, ou sans question valide) par la génération locale,
+     * comme en flux : repli compté (incomplete)
      */
-    private int extractNumberOfQuestions(String prompt) {
-        try {
-            String[] parts = prompt.split("génère exactement ");
-            if (parts.length > 1) {
-                String numberPart = parts[1].split(" ")[0];
-                return Integer.parseInt(numberPart);
-            }
-        } catch (Exception e) {
-            log.warn("Could not extract number of questions, using default: 5");
+    private List<QuizQuestionDTO> completeLocally(List<QuizQuestionDTO> questions, GenerationRequest request) {
+        int missing = request.numberOfQuestions() - questions.size();
+        if (missing <= 0) {
+            return questions;
         }
-        return 5;
-    }
-
-    /**
-     * Génère des questions de secours en cas d'erreur
-     */
-    private List<QuizQuestionDTO> generateFallbackQuestions(int count) {
-        List<QuizQuestionDTO> questions = new ArrayList<>();
-        
-        for (int i = 0; i < count; i++) {
-            QuizQuestionDTO dto = new QuizQuestionDTO();
-            dto.setQuestion("Question de secours " + (i + 1));
-            dto.setOptions(List.of("Option A", "Option B", "Option C", "Option D"));
-            dto.setCorrectAnswerIndex(0);
-            dto.setExplanation("Explication de la réponse");
-            questions.add(dto);
+        if (questions.isEmpty()) {
+            log.error("No valid question in LLM response");
         }
-        
-        return questions;
+        llmCallGuard.recordFallback("incomplete");
+        List<QuizQuestionDTO> completed = new ArrayList<>(questions);
+        generateLocalQuestions(request).stream()
+                .skip(questions.size())
+                .limit(missing)
+                .forEach(completed::add);
+        return completed;
     }
 
     /**
@@ -0,0 +1,156 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.entity.Course;
+import com.plateforme.educational.entity.CourseFile;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Contrôle d'admission des traitements gourmands en mémoire
+ * (extraction de fichiers, assemblage du contexte d'un cours, génération de quiz).
+ * Chaque traitement réserve une estimation de sa consommation dans un budget global ;
+ * au-delà, il attend son tour (file FIFO) puis échoue avec une 503 si le délai est dépassé.
+ * Un traitement imbriqué dans un autre déjà admis (même thread) n'est pas recompté.
+ */
+@Component
+@Slf4j
+public class MemoryGovernor {
+
+    private static final long PERMIT_BYTES = 1024;
+
+    private final Semaphore budget;
+    private final int totalPermits;
+    private final long acquireTimeoutMs;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong bytesInUse = new AtomicLong();
+    private final Timer waitTimer;
+
+    // Profondeur d'imbrication des admissions sur le thread courant
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    public MemoryGovernor(MeterRegistry meterRegistry,
+                          @Value("${governor.memory.budget-bytes:0}") long budgetBytes,
+                          @Value("${governor.memory.acquire-timeout-ms:10000}") long acquireTimeoutMs) {
+        long bytes = budgetBytes > 0 ? budgetBytes : Runtime.getRuntime().maxMemory() / 4;
+        this.totalPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytes / PERMIT_BYTES));
+        this.budget = new Semaphore(totalPermits, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("governor.memory.queued", queued, AtomicInteger::get)
+                .description("Traitements en attente d'admission")
+                .register(meterRegistry);
+        Gauge.builder("governor.memory.active", active, AtomicInteger::get)
+                .description("Traitements admis en cours d'exécution")
+                .register(meterRegistry);
+        Gauge.builder("governor.memory.bytes.in_use", bytesInUse, AtomicLong::get)
+                .description("Octets réservés par les traitements admis")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("governor.memory.wait")
+                .description("Temps d'attente avant admission")
+                .register(meterRegistry);
+
+        log.info("Memory governor: budget de {} Mo", totalPermits * PERMIT_BYTES / (1024 * 1024));
+    }
+
+    /**
+     * Exécute un traitement une fois la mémoire estimée disponible
+     *
+     * @throws ServiceOverloadedException si le budget n'est pas libéré à temps
+     */
+    public <T> T admit(String work, long estimatedBytes, Supplier<T> task) {
+        int[] nesting = depth.get();
+        if (nesting[0] > 0) {
+            nesting[0]++;
+            try {
+                return task.get();
+            } finally {
+                nesting[0]--;
+            }
+        }
+
+        int permits = permitsFor(estimatedBytes);
+        acquire(work, permits);
+        active.incrementAndGet();
+        bytesInUse.addAndGet(permits * PERMIT_BYTES);
+        nesting[0]++;
+        try {
+            return task.get();
+        } finally {
+            nesting[0]--;
+            bytesInUse.addAndGet(-permits * PERMIT_BYTES);
+            active.decrementAndGet();
+            budget.release(permits);
+        }
+    }
+
+    /**
+     * Estimation de la mémoire nécessaire pour assembler tout le contenu d'un cours
+     * (texte extrait en UTF-16, plus une copie lors de la concaténation)
+     */
+    public long estimateCourseBytes(Course course) {
+        long chars = length(course.getTitle()) + length(course.getDescription()) + length(course.getContent());
+        long fileBytes = 0;
+        if (course.getFiles() != null) {
+            for (CourseFile file : course.getFiles()) {
+                fileBytes += estimateExtractionBytes(file);
+            }
+        }
+        return chars * 4 + fileBytes * 2;
+    }
+
+    /**
+     * Estimation de la mémoire nécessaire pour extraire le texte d'un fichier
+     */
+    public long estimateExtractionBytes(CourseFile file) {
+        String name = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        // PDF et documents Office : structures du parseur en plus du texte produit
+        long factor = name.endsWith(".pdf") || name.endsWith(".docx") || name.endsWith(".pptx") || name.endsWith(".xlsx") ? 4 : 2;
+        return file.getSize() * factor;
+    }
+
+    private void acquire(String work, int permits) {
+        queued.incrementAndGet();
+        long start = System.nanoTime();
+        boolean admitted = false;
+        try {
+            admitted = budget.tryAcquire(permits, acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queued.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (!admitted) {
+            meterRegistry.counter("governor.memory.rejected", "work", work).increment();
+            log.warn("Memory governor: {} refusé ({} Ko demandés, {} Ko disponibles)",
+                    work, permits, budget.availablePermits());
+            throw new ServiceOverloadedException("Le serveur est momentanément surchargé, veuillez réessayer dans quelques instants");
+        }
+        meterRegistry.counter("governor.memory.admitted", "work", work).increment();
+    }
+
+    private int permitsFor(long estimatedBytes) {
+        long permits = (estimatedBytes + PERMIT_BYTES - 1) / PERMIT_BYTES;
+        // Un traitement plus gros que le budget s'exécute seul plutôt que jamais
+        return (int) Math.max(1, Math.min(totalPermits, permits));
+    }
+
+    private static long length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,223 @@
+package com.plateforme.educational.service;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extraction du texte des documents Office (DOCX, PPTX, XLSX)
+ * Les parties XML sont lues en flux (SAX) : aucun modèle DOM du document n'est construit,
+ * la mémoire utilisée ne dépend donc pas de la taille du document
+ */
+@Component
+public class OfficeTextExtractor {
+
+    private static final String WORDPROCESSING_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String DRAWING_NS = "http://schemas.openxmlformats.org/drawingml/2006/main";
+    private static final String SLIDE_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.presentationml.slide+xml";
+    private static final Pattern SLIDE_NUMBER = Pattern.compile("slide(\\d+)\\.xml$");
+
+    public boolean supports(String filename) {
+        String lower = filename.toLowerCase();
+        return lower.endsWith(".docx") || lower.endsWith(".pptx") || lower.endsWith(".xlsx");
+    }
+
+    /**
+     * Extrait le texte d'un document Office, chaîne vide si le format n'est pas supporté
+     */
+    public String extract(String path, String filename) throws IOException {
+        String lower = filename.toLowerCase();
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(new File(path), PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("Document Office illisible: " + filename, e);
+        }
+
+        // Paquet ouvert en lecture seule : revert() libère le fichier sans tenter de le réécrire
+        try {
+            StringBuilder text = new StringBuilder();
+            if (lower.endsWith(".docx")) {
+                extractDocx(pkg, text);
+            } else if (lower.endsWith(".pptx")) {
+                extractPptx(pkg, text);
+            } else if (lower.endsWith(".xlsx")) {
+                extractXlsx(pkg, text);
+            }
+            return text.toString();
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Document Office illisible: " + filename, e);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * DOCX : corps principal (word/document.xml), un paragraphe par ligne
+     */
+    private void extractDocx(OPCPackage pkg, StringBuilder out)
+            throws IOException, SAXException, ParserConfigurationException, OpenXML4JException {
+        PackageRelationshipCollection main = pkg.getRelationshipsByType(PackageRelationshipTypes.CORE_DOCUMENT);
+        if (main.size() == 0) {
+            return;
+        }
+        PackagePart document = pkg.getPart(main.getRelationship(0));
+        parse(document, new TextRunHandler(WORDPROCESSING_NS, out));
+    }
+
+    /**
+     * PPTX : chaque diapositive dans l'ordre de sa numérotation
+     */
+    private void extractPptx(OPCPackage pkg, StringBuilder out)
+            throws IOException, SAXException, ParserConfigurationException, OpenXML4JException {
+        List<PackagePart> slides = new ArrayList<>(pkg.getPartsByContentType(SLIDE_CONTENT_TYPE));
+        slides.sort(Comparator.comparingInt(OfficeTextExtractor::slideNumber));
+        for (PackagePart slide : slides) {
+            parse(slide, new TextRunHandler(DRAWING_NS, out));
+            out.append('\n');
+        }
+    }
+
+    /**
+     * XLSX : API événementielle de POI (XSSFReader + XSSFSheetXMLHandler), une ligne par rangée
+     */
+    private void extractXlsx(OPCPackage pkg, StringBuilder out)
+            throws IOException, SAXException, ParserConfigurationException, OpenXML4JException {
+        ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+        XSSFReader reader = new XSSFReader(pkg);
+        StylesTable styles = reader.getStylesTable();
+        Iterator<InputStream> sheets = reader.getSheetsData();
+        while (sheets.hasNext()) {
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, new SheetTextCollector(out), false));
+                parser.parse(new InputSource(sheet));
+            }
+            out.append('\n');
+        }
+    }
+
+    private void parse(PackagePart part, ContentHandler handler)
+            throws IOException, SAXException, ParserConfigurationException {
+        try (InputStream in = part.getInputStream()) {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(handler);
+            parser.parse(new InputSource(in));
+        }
+    }
+
+    private static int slideNumber(PackagePart part) {
+        Matcher matcher = SLIDE_NUMBER.matcher(part.getPartName().getName());
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Collecte le texte des éléments {@code <t>} d'un espace de noms donné
+     * (w:t pour Word, a:t pour les diapositives) et saute une ligne à chaque fin de paragraphe
+     */
+    private static class TextRunHandler extends DefaultHandler {
+        private final String namespace;
+        private final StringBuilder out;
+        private boolean inText;
+
+        TextRunHandler(String namespace, StringBuilder out) {
+            this.namespace = namespace;
+            this.out = out;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (!namespace.equals(uri)) {
+                return;
+            }
+            if ("t".equals(localName)) {
+                inText = true;
+            } else if ("tab".equals(localName)) {
+                out.append('\t');
+            } else if ("br".equals(localName)) {
+                out.append('\n');
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (!namespace.equals(uri)) {
+                return;
+            }
+            if ("t".equals(localName)) {
+                inText = false;
+            } else if ("p".equals(localName)) {
+                out.append('\n');
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                out.append(ch, start, length);
+            }
+        }
+    }
+
+    /**
+     * Reçoit les cellules d'une feuille XLSX au fil de la lecture
+     */
+    private static class SheetTextCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final StringBuilder out;
+        private boolean firstCell;
+
+        SheetTextCollector(StringBuilder out) {
+            this.out = out;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            firstCell = true;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            out.append('\n');
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (formattedValue == null || formattedValue.isEmpty()) {
+                return;
+            }
+            if (!firstCell) {
+                out.append('\t');
+            }
+            out.append(formattedValue);
+            firstCell = false;
+        }
+    }
+}
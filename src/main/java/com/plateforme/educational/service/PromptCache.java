@@ -0,0 +1,468 @@
+package com.plateforme.educational.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cache des réponses du modèle, par empreinte du prompt
+ * Deux niveaux : une LRU en mémoire bornée en octets, puis un journal disque par modèle
+ * (ajout seul, relu au démarrage). Chaque entrée expire après ttl-ms. Quand un journal dépasse
+ * disk-max-bytes, il est réécrit avec ses seules entrées vivantes, les plus récentes d'abord,
+ * jusqu'à la moitié de la borne. Un enregistrement tronqué par un arrêt brutal est écarté
+ * (somme de contrôle) et le journal coupé à cet endroit. Les fichiers temporaires d'une compaction
+ * interrompue sont supprimés au démarrage.
+ */
+@Component
+@Slf4j
+public class PromptCache {
+
+    private static final String SUFFIX = ".log";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    // Longueur de la réponse, expiration, empreinte SHA-256 ; CRC32 en fin d'enregistrement
+    private static final int DIGEST_BYTES = 32;
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + DIGEST_BYTES;
+    private static final int TRAILER_BYTES = Integer.BYTES;
+
+    @Value("${llm.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${llm.cache.dir:${file.upload-dir:uploads}/cache/llm}")
+    private String cacheDir;
+
+    @Value("${llm.cache.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${llm.cache.memory-max-bytes:33554432}")
+    private long memoryMaxBytes;
+
+    @Value("${llm.cache.disk-max-bytes:268435456}")
+    private long diskMaxBytes;
+
+    private final MeterRegistry meterRegistry;
+
+    private Path root;
+
+    // Journal disque par fichier (un par modèle)
+    private final Map<String, Journal> journals = new ConcurrentHashMap<>();
+
+    // Niveau mémoire : espace de noms + empreinte -> réponse, en ordre d'accès (LRU)
+    private final LinkedHashMap<String, Cached> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private long memoryBytes;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private record Cached(String response, long expiresAt) {}
+
+    private record Location(long offset, int length, long expiresAt) {}
+
+    public PromptCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("llm.cache.hit_ratio", this, PromptCache::hitRatio)
+                .description("Part des appels au modèle servis par le cache")
+                .register(meterRegistry);
+        Gauge.builder("llm.cache.disk.bytes", journals, j -> j.values().stream().mapToLong(Journal::size).sum())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("llm.cache.memory.bytes", this, cache -> cache.memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        if (!enabled) {
+            return;
+        }
+
+        this.root = Paths.get(cacheDir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            log.warn("Cache des réponses du modèle désactivé: répertoire {} inaccessible", root, e);
+            enabled = false;
+            return;
+        }
+
+        List<Path> files = new ArrayList<>();
+        List<Path> leftovers = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(root)) {
+            listing.forEach(p -> {
+                String name = p.getFileName().toString();
+                if (name.endsWith(SUFFIX)) {
+                    files.add(p);
+                } else if (name.endsWith(TMP_SUFFIX)) {
+                    leftovers.add(p);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Lecture du cache des réponses du modèle impossible", e);
+            return;
+        }
+        for (Path leftover : leftovers) {
+            try {
+                Files.deleteIfExists(leftover);
+                log.info("Fichier temporaire de compaction supprimé: {}", leftover.getFileName());
+            } catch (IOException e) {
+                log.warn("Suppression de {} impossible", leftover, e);
+            }
+        }
+        for (Path file : files) {
+            try {
+                Journal journal = new Journal(file);
+                journals.put(file.getFileName().toString(), journal);
+                log.info("Cache du modèle {}: {} réponse(s), {} octets", file.getFileName(), journal.entries(), journal.size());
+            } catch (IOException e) {
+                log.warn("Journal de cache illisible {}", file, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        journals.values().forEach(Journal::close);
+    }
+
+    /**
+     * Réponse déjà obtenue du modèle pour ce prompt, si elle n'a pas expiré
+     */
+    public Optional<String> get(String model, String prompt) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        byte[] digest = digest(model, prompt);
+        String key = model + ":" + HexFormat.of().formatHex(digest);
+        long now = System.currentTimeMillis();
+
+        synchronized (memory) {
+            Cached cached = memory.get(key);
+            if (cached != null && cached.expiresAt() > now) {
+                record(memoryHits, "memory");
+                return Optional.of(cached.response());
+            }
+            if (cached != null) {
+                memory.remove(key);
+                memoryBytes -= 2L * cached.response().length();
+            }
+        }
+
+        Journal journal = journals.get(fileName(model));
+        Optional<Cached> stored = journal != null ? journal.read(digest, now) : Optional.empty();
+        if (stored.isEmpty()) {
+            record(misses, "miss");
+            return Optional.empty();
+        }
+        record(diskHits, "disk");
+        remember(key, stored.get());
+        return Optional.of(stored.get().response());
+    }
+
+    /**
+     * Enregistre une réponse complète du modèle
+     */
+    public void put(String model, String prompt, String response) {
+        if (!enabled) {
+            return;
+        }
+        byte[] digest = digest(model, prompt);
+        Cached cached = new Cached(response, System.currentTimeMillis() + ttlMs);
+        remember(model + ":" + HexFormat.of().formatHex(digest), cached);
+
+        String name = fileName(model);
+        try {
+            Journal journal = journals.get(name);
+            if (journal == null) {
+                synchronized (journals) {
+                    journal = journals.get(name);
+                    if (journal == null) {
+                        journal = new Journal(root.resolve(name));
+                        journals.put(name, journal);
+                    }
+                }
+            }
+            journal.append(digest, cached);
+        } catch (IOException e) {
+            log.warn("Écriture dans le cache du modèle {} impossible", model, e);
+        }
+    }
+
+    private void remember(String key, Cached cached) {
+        long bytes = 2L * cached.response().length();
+        if (bytes > memoryMaxBytes) {
+            return;
+        }
+        synchronized (memory) {
+            Cached previous = memory.put(key, cached);
+            memoryBytes += bytes - (previous != null ? 2L * previous.response().length() : 0L);
+            Iterator<Map.Entry<String, Cached>> it = memory.entrySet().iterator();
+            while (memoryBytes > memoryMaxBytes && it.hasNext()) {
+                memoryBytes -= 2L * it.next().getValue().response().length();
+                it.remove();
+            }
+        }
+    }
+
+    private void record(AtomicLong counter, String result) {
+        counter.incrementAndGet();
+        Counter.builder("llm.cache.requests")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private double hitRatio() {
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * L'espace de noms fait partie de l'empreinte : deux modèles ne partagent jamais une réponse,
+     * même si leurs noms donnent le même fichier
+     */
+    private static byte[] digest(String model, String prompt) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(model.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+            return sha.digest(prompt.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static String fileName(String model) {
+        return model.replaceAll("[^A-Za-z0-9._-]", "_") + SUFFIX;
+    }
+
+    /**
+     * Journal disque d'un modèle : enregistrements ajoutés en fin de fichier, index en mémoire
+     */
+    private final class Journal {
+
+        private final Path file;
+        private FileChannel channel;
+        private final Map<String, Location> index = new HashMap<>();
+        private long size;
+
+        Journal(Path file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            load();
+        }
+
+        /**
+         * Relit le journal ; s'arrête au premier enregistrement incomplet ou corrompu
+         */
+        private void load() throws IOException {
+            long now = System.currentTimeMillis();
+            long fileSize = channel.size();
+            long offset = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (offset + HEADER_BYTES + TRAILER_BYTES <= fileSize) {
+                header.clear();
+                channel.read(header, offset);
+                header.flip();
+                // Longueur lue sur disque, donc suspecte : calculée en long, hors bornes = troncature
+                int responseLength = header.getInt();
+                long length = (long) HEADER_BYTES + responseLength + TRAILER_BYTES;
+                if (responseLength < 0 || length > Integer.MAX_VALUE || offset + length > fileSize) {
+                    break;
+                }
+                Optional<Stored> record = readRecord(offset, (int) length);
+                if (record.isEmpty()) {
+                    break;
+                }
+                if (record.get().expiresAt() > now) {
+                    index.put(record.get().key(), new Location(offset, (int) length, record.get().expiresAt()));
+                } else {
+                    index.remove(record.get().key());
+                }
+                offset += length;
+            }
+            if (offset < fileSize) {
+                log.warn("Journal {} tronqué à {} octets (enregistrement incomplet)", file.getFileName(), offset);
+                channel.truncate(offset);
+            }
+            size = offset;
+        }
+
+        synchronized Optional<Cached> read(byte[] digest, long now) {
+            String key = HexFormat.of().formatHex(digest);
+            Location location = index.get(key);
+            if (location == null) {
+                return Optional.empty();
+            }
+            if (location.expiresAt() <= now) {
+                index.remove(key);
+                return Optional.empty();
+            }
+            try {
+                return readRecord(location.offset(), location.length())
+                        .filter(record -> record.key().equals(key))
+                        .map(record -> new Cached(record.response(), record.expiresAt()));
+            } catch (IOException e) {
+                log.debug("Entrée de cache illisible {}: {}", key, e.getMessage());
+                index.remove(key);
+                return Optional.empty();
+            }
+        }
+
+        synchronized void append(byte[] digest, Cached cached) throws IOException {
+            byte[] response = cached.response().getBytes(StandardCharsets.UTF_8);
+            int length = HEADER_BYTES + response.length + TRAILER_BYTES;
+            if (length > diskMaxBytes / 2) {
+                return;
+            }
+            ByteBuffer buffer = encode(digest, cached.expiresAt(), response);
+            long offset = size;
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer, offset);
+            }
+            index.put(HexFormat.of().formatHex(digest), new Location(size, length, cached.expiresAt()));
+            size = offset;
+
+            if (size > diskMaxBytes) {
+                compact();
+            }
+        }
+
+        /**
+         * Réécrit le journal avec les entrées vivantes, des plus récentes aux plus anciennes,
+         * dans la limite de la moitié de la borne ; le nouveau fichier remplace l'ancien atomiquement
+         * En cas d'échec, l'ancien journal reste en place, rouvert, avec son index.
+         */
+        private void compact() throws IOException {
+            long now = System.currentTimeMillis();
+            List<Map.Entry<String, Location>> live = index.entrySet().stream()
+                    .filter(entry -> entry.getValue().expiresAt() > now)
+                    .sorted(Comparator.comparingLong((Map.Entry<String, Location> entry) -> entry.getValue().offset()).reversed())
+                    .toList();
+
+            Path tmp = Files.createTempFile(root, file.getFileName().toString(), TMP_SUFFIX);
+            Map<String, Location> compacted = new HashMap<>();
+            long written = 0;
+            try {
+                try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    for (Map.Entry<String, Location> entry : live) {
+                        Location location = entry.getValue();
+                        if (written + location.length() > diskMaxBytes / 2) {
+                            break;
+                        }
+                        ByteBuffer record = ByteBuffer.allocate(location.length());
+                        channel.read(record, location.offset());
+                        record.flip();
+                        compacted.put(entry.getKey(), new Location(written, location.length(), location.expiresAt()));
+                        while (record.hasRemaining()) {
+                            written += out.write(record, written);
+                        }
+                    }
+                    out.force(true);
+                }
+
+                // Fermé avant le remplacement (exigé sur certains systèmes), rouvert quoi qu'il arrive
+                channel.close();
+                try {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+            log.info("Journal {} compacté: {} -> {} octets, {} réponse(s) conservée(s) sur {}",
+                    file.getFileName(), size, written, compacted.size(), index.size());
+            index.clear();
+            index.putAll(compacted);
+            size = written;
+        }
+
+        private Optional<Stored> readRecord(long offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    return Optional.empty();
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, length - TRAILER_BYTES);
+            buffer.flip();
+            if ((int) crc.getValue() != buffer.getInt(length - TRAILER_BYTES)) {
+                return Optional.empty();
+            }
+
+            int responseLength = buffer.getInt();
+            long expiresAt = buffer.getLong();
+            byte[] digest = new byte[DIGEST_BYTES];
+            buffer.get(digest);
+            String response = new String(buffer.array(), HEADER_BYTES, responseLength, StandardCharsets.UTF_8);
+            return Optional.of(new Stored(HexFormat.of().formatHex(digest), expiresAt, response));
+        }
+
+        synchronized long size() {
+            return size;
+        }
+
+        synchronized int entries() {
+            return index.size();
+        }
+
+        synchronized void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Fermeture du journal {} impossible: {}", file.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    private record Stored(String key, long expiresAt, String response) {}
+
+    private static ByteBuffer encode(byte[] digest, long expiresAt, byte[] response) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + response.length + TRAILER_BYTES);
+        buffer.putInt(response.length);
+        buffer.putLong(expiresAt);
+        buffer.put(digest);
+        buffer.put(response);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,120 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.entity.Course;
+import com.plateforme.educational.entity.QuizQuestion;
+import com.plateforme.educational.entity.StudentQuestionHistory;
+import com.plateforme.educational.entity.User;
+import com.plateforme.educational.repository.QuizQuestionRepository;
+import com.plateforme.educational.repository.StudentQuestionHistoryRepository;
+import com.plateforme.educational.util.FingerprintSet;
+import com.plateforme.educational.util.QuestionFingerprint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Historique compact des questions servies à chaque étudiant, par cours
+ * Une ligne par (étudiant, cours) contenant les empreintes triées (énoncé et bonne réponse, QuestionFingerprint) : le tirage d'un quiz lit
+ * une seule ligne au lieu de relire le texte de toutes les questions des tentatives passées.
+ * Les ajouts simultanés pour un même étudiant sont sérialisés par un verrou sur cette ligne ;
+ * elle est créée au besoin dans une transaction à part, où une insertion concurrente est tolérée.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class QuestionHistoryService {
+
+    private final StudentQuestionHistoryRepository historyRepository;
+    private final QuizQuestionRepository quizQuestionRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Empreintes des questions déjà servies à l'étudiant pour ce cours
+     */
+    @Transactional(readOnly = true)
+    public FingerprintSet seen(User student, Course course) {
+        return historyRepository.findFingerprints(student.getId(), course.getId())
+                .map(FingerprintSet::fromBytes)
+                .orElseGet(() -> fromAttempts(student, course));
+    }
+
+    /**
+     * Ajoute à l'historique les questions d'une nouvelle tentative
+     */
+    public void record(User student, Course course, Collection<QuizQuestion> questions) {
+        if (questions.isEmpty()) {
+            return;
+        }
+        List<Long> fingerprints = questions.stream().map(QuestionHistoryService::fingerprint).collect(Collectors.toList());
+
+        StudentQuestionHistory history = historyRepository.findForUpdate(student.getId(), course.getId())
+                .orElse(null);
+        if (history == null) {
+            createIfAbsent(student, course);
+            history = historyRepository.findForUpdate(student.getId(), course.getId())
+                    .orElseThrow(() -> new IllegalStateException("Historique introuvable après sa création"));
+        }
+
+        FingerprintSet updated = FingerprintSet.fromBytes(history.getFingerprints()).with(fingerprints);
+        history.setFingerprints(updated.toBytes());
+        history.setQuestionCount(updated.size());
+        history.setUpdatedAt(LocalDateTime.now());
+        historyRepository.save(history);
+    }
+
+    public void deleteForCourse(Course course) {
+        historyRepository.deleteByCourse(course);
+    }
+
+    public void deleteForStudent(Long studentId) {
+        historyRepository.deleteByStudentId(studentId);
+    }
+
+    /**
+     * Crée la ligne de l'étudiant, avec les questions des tentatives antérieures à l'historique
+     * Transaction séparée : si une autre transaction l'a créée entre-temps, la contrainte d'unicité
+     * fait échouer celle-ci seulement, et la ligne existante est utilisée.
+     */
+    private void createIfAbsent(User student, Course course) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                FingerprintSet previous = fromAttempts(student, course);
+                StudentQuestionHistory history = new StudentQuestionHistory();
+                history.setStudent(student);
+                history.setCourse(course);
+                history.setFingerprints(previous.toBytes());
+                history.setQuestionCount(previous.size());
+                historyRepository.saveAndFlush(history);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Historique ({}, {}) créé par une autre transaction", student.getId(), course.getId());
+        }
+    }
+
+    private FingerprintSet fromAttempts(User student, Course course) {
+        if (student.getId() == null || course.getId() == null) {
+            return FingerprintSet.EMPTY;
+        }
+        return FingerprintSet.of(quizQuestionRepository.findWithOptionsByStudentAndCourse(student.getId(), course.getId())
+                .stream()
+                .map(QuestionHistoryService::fingerprint)
+                .collect(Collectors.toList()));
+    }
+
+    private static long fingerprint(QuizQuestion question) {
+        return QuestionFingerprint.of(question.getQuestionText(), question.getOptions(), question.getCorrectAnswerIndex());
+    }
+}
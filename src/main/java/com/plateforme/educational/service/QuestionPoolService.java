@@ -0,0 +1,295 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.entity.Course;
+import com.plateforme.educational.entity.PooledQuestion;
+import com.plateforme.educational.entity.QuizAttempt;
+import com.plateforme.educational.entity.User;
+import com.plateforme.educational.repository.CourseRepository;
+import com.plateforme.educational.repository.PooledQuestionRepository;
+import com.plateforme.educational.service.QuizGeneratorAgent.GeneratedQuestion;
+import com.plateforme.educational.util.FingerprintSet;
+import com.plateforme.educational.util.QuestionFingerprint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Réserves de questions pré-générées par (cours, niveau)
+ * Un quiz tire ses questions sans remise dans la réserve, en écartant celles que l'étudiant
+ * a déjà vues (QuestionHistoryService) ; la génération sort ainsi du chemin critique de la requête. Quand une réserve
+ * passe sous le seuil bas, elle est complétée en arrière-plan jusqu'au seuil haut.
+ * Une question servie max-serves fois est retirée (elle sera régénérée avec d'autres distracteurs).
+ * Le compteur de service est incrémenté en base, sans lecture préalable : des tirages simultanés
+ * ne perdent aucun passage et une seule transaction retire la question.
+ * Chaque réserve a un numéro de génération, incrémenté quand elle est vidée : un remplissage lancé
+ * avant n'empêche pas le suivant et ses questions, tirées de l'ancien contenu, sont écartées.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class QuestionPoolService {
+
+    // Le générateur produit des doublons : nombre maximal de passes pour un remplissage
+    private static final int MAX_REFILL_ROUNDS = 5;
+
+    private final PooledQuestionRepository pooledQuestionRepository;
+    private final QuestionHistoryService questionHistoryService;
+    private final CourseRepository courseRepository;
+    private final QuizGeneratorAgent quizGeneratorAgent;
+    private final ExecutorService questionPoolExecutor;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${quiz.pool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quiz.pool.low-watermark:20}")
+    private int lowWatermark;
+
+    @Value("${quiz.pool.high-watermark:60}")
+    private int highWatermark;
+
+    @Value("${quiz.pool.max-serves:50}")
+    private int maxServes;
+
+    // Réserve -> génération du remplissage en cours
+    private final Map<String, Long> refillsInFlight = new ConcurrentHashMap<>();
+
+    // Réserve -> génération courante (absente : 0)
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    // Réserves que le générateur ne peut plus enrichir (cours trop court) : inutile de relancer
+    private final Set<String> saturated = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Tire les questions d'un quiz ; si la réserve ne suffit pas, le complément est généré immédiatement
+     * Le tirage est reproductible pour une même graine et un même état de la réserve ; reproducible
+     * (graine fournie par l'appelant) exclut aussi le complément généré de tout regroupement.
+     */
+    public List<GeneratedQuestion> draw(User student, Course course, QuizAttempt.DifficultyLevel difficulty,
+                                        int count, long seed, boolean reproducible) {
+        if (!enabled) {
+            return quizGeneratorAgent.generateQuestions(course, difficulty.name(), count, seed, reproducible);
+        }
+        Random random = new Random(seed);
+
+        FingerprintSet seen = questionHistoryService.seen(student, course);
+
+        List<PooledQuestion> pool = pooledQuestionRepository.findByCourseIdAndDifficulty(course.getId(), difficulty);
+        List<PooledQuestion> unseen = pool.stream()
+                .filter(q -> !seen.contains(q.getFingerprint()))
+                .collect(Collectors.toList());
+        // Ordre stable avant mélange : la requête ne garantit aucun ordre
+        unseen.sort(Comparator.comparing(PooledQuestion::getId));
+        Collections.shuffle(unseen, random);
+
+        List<GeneratedQuestion> questions = new ArrayList<>();
+        Set<Long> used = new HashSet<>();
+        List<Long> served = new ArrayList<>();
+        for (PooledQuestion pooled : unseen.subList(0, Math.min(count, unseen.size()))) {
+            questions.add(toGenerated(pooled));
+            used.add(pooled.getFingerprint());
+            served.add(pooled.getId());
+        }
+        int retired = 0;
+        if (!served.isEmpty()) {
+            // Les lignes servies restent verrouillées par l'incrément : les deux suppressions voient les mêmes compteurs
+            pooledQuestionRepository.incrementServeCount(served);
+            pooledQuestionRepository.deleteOptionsOfWornOut(served, maxServes);
+            retired = pooledQuestionRepository.deleteWornOut(served, maxServes);
+            if (retired > 0) {
+                saturated.remove(key(course.getId(), difficulty));
+            }
+        }
+
+        if (questions.size() < count) {
+            log.info("Réserve insuffisante pour '{}' ({}): {} question(s) générée(s) à la demande",
+                    course.getTitle(), difficulty, count - questions.size());
+            topUp(course, difficulty, count, random.nextLong(), reproducible, questions, used, seen);
+        }
+
+        if (pool.size() - retired < lowWatermark) {
+            refillAfterCommit(course.getId(), difficulty);
+        }
+        return questions;
+    }
+
+    /**
+     * Vide les réserves d'un cours dont le contenu a changé puis, si le cours est indexé,
+     * les reconstitue en arrière-plan
+     */
+    public void invalidate(Course course) {
+        delete(course);
+        if (enabled && course.isIndexed()) {
+            for (QuizAttempt.DifficultyLevel difficulty : QuizAttempt.DifficultyLevel.values()) {
+                refillAfterCommit(course.getId(), difficulty);
+            }
+        }
+    }
+
+    public void delete(Course course) {
+        pooledQuestionRepository.deleteByCourse(course);
+        for (QuizAttempt.DifficultyLevel difficulty : QuizAttempt.DifficultyLevel.values()) {
+            String key = key(course.getId(), difficulty);
+            generations.merge(key, 1L, Long::sum);
+            saturated.remove(key);
+        }
+    }
+
+    /**
+     * Complète le quiz par génération directe : d'abord des questions inédites, puis, faute de mieux,
+     * des questions déjà vues
+     */
+    private void topUp(Course course, QuizAttempt.DifficultyLevel difficulty, int count, long seed, boolean reproducible,
+                       List<GeneratedQuestion> questions, Set<Long> used, FingerprintSet seen) {
+        List<GeneratedQuestion> fallback = new ArrayList<>();
+        for (GeneratedQuestion generated : quizGeneratorAgent.generateQuestions(course, difficulty.name(), count, seed, reproducible)) {
+            long fingerprint = fingerprint(generated);
+            if (questions.size() < count && !seen.contains(fingerprint) && used.add(fingerprint)) {
+                questions.add(generated);
+            } else {
+                fallback.add(generated);
+            }
+        }
+        for (GeneratedQuestion generated : fallback) {
+            if (questions.size() >= count) break;
+            questions.add(generated);
+        }
+    }
+
+    private void refillAfterCommit(Long courseId, QuizAttempt.DifficultyLevel difficulty) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleRefill(courseId, difficulty);
+                }
+            });
+        } else {
+            scheduleRefill(courseId, difficulty);
+        }
+    }
+
+    private void scheduleRefill(Long courseId, QuizAttempt.DifficultyLevel difficulty) {
+        String key = key(courseId, difficulty);
+        long generation = generation(key);
+        if (saturated.contains(key)) {
+            return;
+        }
+        // Un remplissage en cours ne bloque que les remplissages de la même génération
+        boolean[] started = {false};
+        refillsInFlight.compute(key, (k, running) -> {
+            if (running != null && running >= generation) {
+                return running;
+            }
+            started[0] = true;
+            return generation;
+        });
+        if (!started[0]) {
+            return;
+        }
+        try {
+            questionPoolExecutor.execute(() -> {
+                try {
+                    new TransactionTemplate(transactionManager).executeWithoutResult(status -> refill(courseId, difficulty, generation));
+                } catch (RuntimeException e) {
+                    log.warn("Remplissage de la réserve {} impossible", key, e);
+                } finally {
+                    refillsInFlight.remove(key, generation);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refillsInFlight.remove(key, generation);
+        }
+    }
+
+    private long generation(String key) {
+        return generations.getOrDefault(key, 0L);
+    }
+
+    private void refill(Long courseId, QuizAttempt.DifficultyLevel difficulty, long generation) {
+        Course course = courseRepository.findById(courseId).orElse(null);
+        if (course == null || !course.isIndexed()) {
+            return;
+        }
+
+        List<PooledQuestion> pool = pooledQuestionRepository.findByCourseIdAndDifficulty(courseId, difficulty);
+        Set<Long> known = pool.stream().map(PooledQuestion::getFingerprint).collect(Collectors.toCollection(HashSet::new));
+        int missing = highWatermark - pool.size();
+
+        List<PooledQuestion> added = new ArrayList<>();
+        for (int round = 0; round < MAX_REFILL_ROUNDS && added.size() < missing; round++) {
+            long seed = ThreadLocalRandom.current().nextLong();
+            for (GeneratedQuestion generated : quizGeneratorAgent.generateQuestions(course, difficulty.name(), missing - added.size(), seed, false)) {
+                long fingerprint = fingerprint(generated);
+                if (known.add(fingerprint)) {
+                    added.add(toPooled(course, difficulty, generated, fingerprint));
+                }
+            }
+        }
+        String key = key(courseId, difficulty);
+        if (generation(key) != generation) {
+            log.info("Réserve '{}' ({}) vidée pendant le remplissage : {} question(s) écartée(s)",
+                    course.getTitle(), difficulty, added.size());
+            return;
+        }
+        pooledQuestionRepository.saveAll(added);
+
+        if (pool.size() + added.size() < lowWatermark) {
+            saturated.add(key);
+        }
+        log.info("Réserve '{}' ({}) : {} question(s) ajoutée(s), {} au total",
+                course.getTitle(), difficulty, added.size(), pool.size() + added.size());
+    }
+
+    private static long fingerprint(GeneratedQuestion generated) {
+        return QuestionFingerprint.of(generated.question, generated.options, generated.correctIndex);
+    }
+
+    private GeneratedQuestion toGenerated(PooledQuestion pooled) {
+        GeneratedQuestion question = new GeneratedQuestion();
+        question.question = pooled.getQuestionText();
+        question.options = new ArrayList<>(pooled.getOptions());
+        question.correctIndex = pooled.getCorrectAnswerIndex();
+        question.explanation = pooled.getExplanation();
+        question.difficulty = pooled.getDifficulty().name();
+        return question;
+    }
+
+    private PooledQuestion toPooled(Course course, QuizAttempt.DifficultyLevel difficulty,
+                                    GeneratedQuestion generated, long fingerprint) {
+        PooledQuestion pooled = new PooledQuestion();
+        pooled.setCourse(course);
+        pooled.setDifficulty(difficulty);
+        pooled.setQuestionText(generated.question);
+        pooled.setOptions(new ArrayList<>(generated.options));
+        pooled.setCorrectAnswerIndex(generated.correctIndex);
+        pooled.setExplanation(generated.explanation);
+        pooled.setFingerprint(fingerprint);
+        return pooled;
+    }
+
+    private static String key(Long courseId, QuizAttempt.DifficultyLevel difficulty) {
+        return courseId + ":" + difficulty;
+    }
+}
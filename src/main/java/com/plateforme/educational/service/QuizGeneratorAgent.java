@@ -1,21 +1,15 @@
 package com.plateforme.educational.service;
 
 import com.plateforme.educational.entity.Course;
-import com.plateforme.educational.entity.CourseFile;
+import com.plateforme.educational.util.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -28,6 +22,28 @@ import java.util.stream.Collectors;
 @Slf4j
 public class QuizGeneratorAgent {
 
+    private final CourseKnowledgeService courseKnowledgeService;
+    private final MeterRegistry meterRegistry;
+
+    // Générations identiques en cours (toute une classe qui lance le même quiz au même moment)
+    private final SingleFlight<GenerationKey, List<GeneratedQuestion>> inFlight = new SingleFlight<>();
+
+    // Nombre de faits tirés au sort pour un quiz
+    private static final int MAX_FACTS_PER_QUIZ = 20;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Clé de regroupement : même cours dans la même version, mêmes paramètres
+     */
+    private record GenerationKey(Long courseId, Integer knowledgeVersion, LocalDateTime courseVersion,
+                                 String difficulty, int numQuestions) {}
+
+    /**
+     * Familles de questions, fusionnées dans cet ordre
+     */
+    private enum QuestionType { DEFINITION, FACT, APPLICATION, ANALYSIS }
+
     /**
      * Structure représentant un concept extrait du cours
      */
@@ -37,6 +53,8 @@ public class QuizGeneratorAgent {
         public String context;
         public String source; // "course" ou nom du fichier
         
+        public int[] neighbours = new int[0]; // indices des concepts les plus proches
+        
         public ConceptInfo(String term, String definition, String context, String source) {
             this.term = term;
             this.definition = definition;
@@ -45,6 +63,18 @@ public class QuizGeneratorAgent {
         }
     }
 
+    /**
+     * Structure représentant une phrase informative du cours
+     */
+    public static class FactInfo {
+        public String text;
+        public int conceptIndex = -1; // concept cité dans la phrase, -1 si aucun
+        
+        public FactInfo(String text) {
+            this.text = text;
+        }
+    }
+
     /**
      * Structure pour une question générée
      */
@@ -62,291 +92,150 @@ public class QuizGeneratorAgent {
 
     /**
      * Génère des questions intelligentes basées sur le contenu du cours
+     * Le résultat ne dépend que du contenu indexé, des paramètres et de la graine. Si une génération
+     * identique est déjà en cours, ses questions sont réutilisées, dans un ordre propre à la graine ;
+     * sauf pour une génération reproductible (graine fournie par l'appelant), toujours faite à part.
+     */
+    public List<GeneratedQuestion> generateQuestions(Course course, String difficulty, int numQuestions, long seed,
+                                                     boolean reproducible) {
+        if (reproducible) {
+            return shuffledCopy(generate(course, difficulty, numQuestions, seed), seed);
+        }
+        GenerationKey key = new GenerationKey(course.getId(), course.getKnowledgeVersion(), course.getUpdatedAt(),
+                difficulty.toUpperCase(), numQuestions);
+        SingleFlight.Outcome<List<GeneratedQuestion>> outcome =
+                inFlight.execute(key, () -> generate(course, difficulty, numQuestions, seed));
+        if (outcome.shared()) {
+            log.debug("Génération partagée pour '{}' ({}, {} questions)", course.getTitle(), difficulty, numQuestions);
+            Counter.builder("quiz.generation.coalesced")
+                    .tag("generator", "agent")
+                    .register(meterRegistry)
+                    .increment();
+        }
+        return shuffledCopy(outcome.value(), seed);
+    }
+
+    /**
+     * Copie indépendante des questions, ordre des questions et des options mélangé selon la graine
+     * Les appels regroupés partagent le même résultat : chaque étudiant en reçoit sa propre permutation.
      */
-    public List<GeneratedQuestion> generateQuestions(Course course, String difficulty, int numQuestions) {
+    static List<GeneratedQuestion> shuffledCopy(List<GeneratedQuestion> questions, long seed) {
+        Random random = new Random(seed);
+        List<GeneratedQuestion> copy = new ArrayList<>(questions.size());
+        for (GeneratedQuestion question : questions) {
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < question.options.size(); i++) {
+                order.add(i);
+            }
+            Collections.shuffle(order, random);
+
+            GeneratedQuestion shuffled = new GeneratedQuestion();
+            shuffled.question = question.question;
+            for (int i : order) {
+                shuffled.options.add(question.options.get(i));
+            }
+            shuffled.correctIndex = order.indexOf(question.correctIndex);
+            shuffled.explanation = question.explanation;
+            shuffled.difficulty = question.difficulty;
+            copy.add(shuffled);
+        }
+        Collections.shuffle(copy, random);
+        return copy;
+    }
+
+    private List<GeneratedQuestion> generate(Course course, String difficulty, int numQuestions, long seed) {
         log.info("Agent de génération: Analyse du cours '{}' pour {} questions de niveau {}", 
                 course.getTitle(), numQuestions, difficulty);
         
-        // 1. Collecter tout le contenu
-        String fullContent = collectAllContent(course);
-        log.info("Contenu collecté: {} caractères", fullContent.length());
-        
-        // 2. Extraire les concepts clés
-        List<ConceptInfo> concepts = extractConcepts(fullContent, course.getTitle());
-        log.info("Concepts extraits: {}", concepts.size());
-        
-        // 3. Extraire les faits importants
-        List<String> facts = extractFacts(fullContent);
-        log.info("Faits extraits: {}", facts.size());
-        
-        // 4. Générer les questions
+        // 1. Concepts et faits extraits à l'indexation
+        CourseKnowledgeService.CourseKnowledge knowledge = courseKnowledgeService.load(course);
+        Random random = new Random(seed);
+
+        // 2. Concepts clés
+        List<ConceptInfo> concepts = knowledge.concepts();
+        log.info("Concepts disponibles: {}", concepts.size());
+
+        // 3. Échantillon de faits importants
+        List<FactInfo> facts = new ArrayList<>(knowledge.facts());
+        Collections.shuffle(facts, random);
+        if (facts.size() > MAX_FACTS_PER_QUIZ) {
+            facts = facts.subList(0, MAX_FACTS_PER_QUIZ);
+        }
+        log.info("Faits retenus: {}", facts.size());
+
+        // 4. Générer les questions, famille par famille
         List<GeneratedQuestion> questions = new ArrayList<>();
-        Random random = new Random();
         
         int questionsPerType = numQuestions / 4 + 1;
-        
-        // Questions de définition (basées sur les concepts)
-        for (int i = 0; i < questionsPerType && questions.size() < numQuestions && i < concepts.size(); i++) {
-            GeneratedQuestion q = createDefinitionQuestion(concepts.get(i), difficulty, random);
-            if (q != null) questions.add(q);
-        }
-        
-        // Questions de compréhension (basées sur les faits)
-        for (int i = 0; i < questionsPerType && questions.size() < numQuestions && i < facts.size(); i++) {
-            GeneratedQuestion q = createFactQuestion(facts.get(i), difficulty, random);
-            if (q != null) questions.add(q);
-        }
-        
-        // Questions d'application (niveau intermédiaire+)
+        List<QuestionType> types = new ArrayList<>(List.of(QuestionType.DEFINITION, QuestionType.FACT));
         if (!difficulty.equalsIgnoreCase("BEGINNER")) {
-            for (int i = 0; i < questionsPerType && questions.size() < numQuestions && i < concepts.size(); i++) {
-                GeneratedQuestion q = createApplicationQuestion(concepts.get(i), difficulty, random);
-                if (q != null) questions.add(q);
-            }
+            types.add(QuestionType.APPLICATION); // niveau intermédiaire+
         }
-        
-        // Questions d'analyse (niveau avancé)
         if (difficulty.equalsIgnoreCase("ADVANCED")) {
-            for (int i = 0; i < questionsPerType && questions.size() < numQuestions && i < facts.size(); i++) {
-                GeneratedQuestion q = createAnalysisQuestion(facts, i, difficulty, random);
-                if (q != null) questions.add(q);
+            types.add(QuestionType.ANALYSIS);
+        }
+
+        // Fusion dans l'ordre des familles
+        for (List<GeneratedQuestion> batch : generateByType(types, concepts, facts, difficulty,
+                Math.min(questionsPerType, numQuestions), random)) {
+            for (GeneratedQuestion q : batch) {
+                if (questions.size() < numQuestions) questions.add(q);
             }
         }
         
         // Compléter avec des questions supplémentaires si nécessaire
         while (questions.size() < numQuestions && !concepts.isEmpty()) {
             int idx = random.nextInt(concepts.size());
-            GeneratedQuestion q = createDefinitionQuestion(concepts.get(idx), difficulty, random);
+            GeneratedQuestion q = createDefinitionQuestion(concepts.get(idx), concepts, difficulty, random);
             if (q != null) questions.add(q);
         }
         
         // Mélanger les questions
-        Collections.shuffle(questions);
+        Collections.shuffle(questions, random);
         
         log.info("Questions générées: {}", questions.size());
         return questions.stream().limit(numQuestions).collect(Collectors.toList());
     }
 
     /**
-     * Collecte tout le contenu du cours (texte + fichiers)
-     */
-    private String collectAllContent(Course course) {
-        StringBuilder content = new StringBuilder();
-        
-        // Titre et description
-        content.append(course.getTitle()).append("\n\n");
-        if (course.getDescription() != null) {
-            content.append(course.getDescription()).append("\n\n");
-        }
-        
-        // Contenu principal
-        if (course.getContent() != null) {
-            content.append(course.getContent()).append("\n\n");
-        }
-        
-        // Fichiers attachés
-        if (course.getFiles() != null) {
-            for (CourseFile file : course.getFiles()) {
-                String fileContent = extractFileContent(file);
-                if (!fileContent.isEmpty()) {
-                    content.append("\n--- Fichier: ").append(file.getOriginalFilename()).append(" ---\n");
-                    content.append(fileContent).append("\n");
-                }
-            }
-        }
-        
-        return content.toString();
-    }
-
-    /**
-     * Extrait le contenu d'un fichier (texte ou PDF)
+     * Génère chaque famille de questions, avec son propre générateur aléatoire initialisé dans un ordre fixe
      */
-    private String extractFileContent(CourseFile file) {
-        if (file == null || file.getStoragePath() == null) {
-            return "";
+    private List<List<GeneratedQuestion>> generateByType(List<QuestionType> types, List<ConceptInfo> concepts,
+                                                        List<FactInfo> facts, String difficulty, int perType,
+                                                        Random random) {
+        long[] seeds = new long[types.size()];
+        for (int t = 0; t < seeds.length; t++) {
+            seeds[t] = random.nextLong();
         }
-        
-        String filename = file.getOriginalFilename().toLowerCase();
-        String contentType = file.getContentType();
-        
-        try {
-            // Fichiers texte
-            if (isTextFile(filename, contentType)) {
-                return Files.readString(Paths.get(file.getStoragePath()), StandardCharsets.UTF_8);
-            }
-            
-            // PDF - extraction basique
-            if (filename.endsWith(".pdf") || (contentType != null && contentType.contains("pdf"))) {
-                return extractPdfContent(file.getStoragePath());
-            }
-            
-        } catch (Exception e) {
-            log.warn("Erreur lecture fichier {}: {}", file.getOriginalFilename(), e.getMessage());
-        }
-        
-        return "";
-    }
-
-    private boolean isTextFile(String filename, String contentType) {
-        if (contentType != null && contentType.startsWith("text/")) return true;
-        return filename.endsWith(".txt") || filename.endsWith(".md") || 
-               filename.endsWith(".json") || filename.endsWith(".xml") ||
-               filename.endsWith(".html") || filename.endsWith(".java") ||
-               filename.endsWith(".py") || filename.endsWith(".js");
-    }
-
-    /**
-     * Extraction du contenu PDF avec Apache PDFBox
-     */
-    private String extractPdfContent(String path) {
-        try {
-            File pdfFile = new File(path);
-            if (!pdfFile.exists()) {
-                log.warn("PDF file not found: {}", path);
-                return "";
-            }
-            
-            try (PDDocument document = Loader.loadPDF(pdfFile)) {
-                PDFTextStripper stripper = new PDFTextStripper();
-                String text = stripper.getText(document);
-                
-                // Nettoyer le texte
-                text = text.replaceAll("\\s+", " ").trim();
-                
-                log.info("Extracted {} characters from PDF: {}", text.length(), path);
-                return text;
-            }
-        } catch (IOException e) {
-            log.warn("Error extracting PDF content from {}: {}", path, e.getMessage());
-            return "";
-        }
-    }
-
-    /**
-     * Extrait les concepts clés du contenu (termes + définitions)
-     */
-    private List<ConceptInfo> extractConcepts(String content, String courseTitle) {
-        List<ConceptInfo> concepts = new ArrayList<>();
-        Set<String> seenTerms = new HashSet<>();
-        
-        // Patterns pour détecter les définitions
-        String[] definitionPatterns = {
-            "(.{3,50})\\s+(?:est|sont|désigne|représente|signifie|correspond à|se définit comme)\\s+(.{10,200})",
-            "(?:Un|Une|Le|La|Les)\\s+(.{3,40})\\s+(?:est|sont)\\s+(.{10,200})",
-            "(.{3,50})\\s*:\\s*(.{10,200})",
-            "(?:On appelle|On définit)\\s+(.{3,50})\\s+(.{10,200})",
-            "(.{3,50})\\s*=\\s*(.{10,200})"
-        };
-        
-        String[] sentences = content.split("[.!?\\n]+");
-        
-        for (String sentence : sentences) {
-            sentence = sentence.trim();
-            if (sentence.length() < 20 || sentence.length() > 500) continue;
-            
-            for (String patternStr : definitionPatterns) {
-                try {
-                    Pattern pattern = Pattern.compile(patternStr, Pattern.CASE_INSENSITIVE);
-                    Matcher matcher = pattern.matcher(sentence);
-                    
-                    if (matcher.find() && matcher.groupCount() >= 2) {
-                        String term = cleanTerm(matcher.group(1));
-                        String definition = matcher.group(2).trim();
-                        
-                        if (term.length() >= 3 && term.length() <= 50 && 
-                            definition.length() >= 10 && !seenTerms.contains(term.toLowerCase())) {
-                            
-                            seenTerms.add(term.toLowerCase());
-                            concepts.add(new ConceptInfo(term, definition, sentence, "course"));
-                        }
-                    }
-                } catch (Exception e) {
-                    // Ignorer les erreurs de regex
-                }
-            }
-        }
-        
-        // Extraire aussi les termes importants (mots en majuscules, termes techniques)
-        Pattern termPattern = Pattern.compile("\\b([A-Z][a-zA-ZÀ-ÿ]{2,})\\b");
-        Matcher termMatcher = termPattern.matcher(content);
-        
-        while (termMatcher.find() && concepts.size() < 30) {
-            String term = termMatcher.group(1);
-            if (term.length() >= 4 && !seenTerms.contains(term.toLowerCase()) && 
-                !isCommonWord(term)) {
-                seenTerms.add(term.toLowerCase());
-                // Trouver le contexte autour du terme
-                int start = Math.max(0, termMatcher.start() - 50);
-                int end = Math.min(content.length(), termMatcher.end() + 150);
-                String context = content.substring(start, end).trim();
-                concepts.add(new ConceptInfo(term, context, context, "course"));
-            }
-        }
-        
-        log.debug("Concepts extraits: {}", concepts.stream().map(c -> c.term).collect(Collectors.joining(", ")));
-        return concepts;
-    }
-
-    private String cleanTerm(String term) {
-        return term.replaceAll("^(Un|Une|Le|La|Les|L')\\s*", "").trim();
-    }
-
-    private boolean isCommonWord(String word) {
-        Set<String> common = Set.of(
-            "Dans", "Pour", "Avec", "Sans", "Cette", "Cela", "Donc", "Mais", "Puis",
-            "Quel", "Quoi", "Comment", "Pourquoi", "Quand", "Alors", "Ainsi", "Aussi",
-            "Bien", "Très", "Plus", "Moins", "Tout", "Tous", "Toute", "Toutes"
-        );
-        return common.contains(word);
-    }
 
-    /**
-     * Extrait les faits importants du contenu
-     */
-    private List<String> extractFacts(String content) {
-        List<String> facts = new ArrayList<>();
-        Set<String> seenFacts = new HashSet<>();
-        
-        String[] sentences = content.split("[.!?]+");
-        
-        for (String sentence : sentences) {
-            sentence = sentence.trim();
-            
-            // Filtrer les phrases de bonne longueur contenant des informations
-            if (sentence.length() >= 30 && sentence.length() <= 300) {
-                // Vérifier que c'est une phrase informative
-                if (containsInformation(sentence) && !seenFacts.contains(sentence.toLowerCase())) {
-                    seenFacts.add(sentence.toLowerCase());
-                    facts.add(sentence);
-                }
-            }
+        List<List<GeneratedQuestion>> batches = new ArrayList<>();
+        for (int t = 0; t < types.size(); t++) {
+            batches.add(generateBatch(types.get(t), concepts, facts, difficulty, perType, new Random(seeds[t])));
         }
-        
-        // Limiter et mélanger
-        Collections.shuffle(facts);
-        return facts.stream().limit(20).collect(Collectors.toList());
+        return batches;
     }
 
-    private boolean containsInformation(String sentence) {
-        // Mots indicateurs d'information
-        String[] indicators = {
-            "permet", "est", "sont", "peut", "doit", "représente", "contient",
-            "utilise", "produit", "génère", "crée", "fonctionne", "sert",
-            "comprend", "inclut", "nécessite", "requiert", "implique",
-            "consiste", "caractérise", "définit", "décrit", "explique"
-        };
-        
-        String lower = sentence.toLowerCase();
-        for (String indicator : indicators) {
-            if (lower.contains(indicator)) return true;
+    private List<GeneratedQuestion> generateBatch(QuestionType type, List<ConceptInfo> concepts, List<FactInfo> facts,
+                                                  String difficulty, int limit, Random random) {
+        List<GeneratedQuestion> batch = new ArrayList<>();
+        int available = type == QuestionType.DEFINITION || type == QuestionType.APPLICATION ? concepts.size() : facts.size();
+        for (int i = 0; i < limit && i < available; i++) {
+            GeneratedQuestion q = switch (type) {
+                case DEFINITION -> createDefinitionQuestion(concepts.get(i), concepts, difficulty, random);
+                case FACT -> createFactQuestion(facts.get(i), concepts, difficulty, random);
+                case APPLICATION -> createApplicationQuestion(concepts.get(i), concepts, difficulty, random);
+                case ANALYSIS -> createAnalysisQuestion(facts, i, difficulty, random);
+            };
+            if (q != null) batch.add(q);
         }
-        return false;
+        return batch;
     }
 
     /**
      * Crée une question de définition
      */
-    private GeneratedQuestion createDefinitionQuestion(ConceptInfo concept, String difficulty, Random random) {
+    private GeneratedQuestion createDefinitionQuestion(ConceptInfo concept, List<ConceptInfo> concepts,
+                                                       String difficulty, Random random) {
         GeneratedQuestion q = new GeneratedQuestion();
         q.difficulty = difficulty;
         
@@ -371,10 +260,16 @@ public class QuizGeneratorAgent {
         q.options.add(correctAnswer);
         q.correctIndex = 0;
         
-        // Générer des mauvaises réponses plausibles
-        q.options.add(generateWrongDefinition(term, 1, random));
-        q.options.add(generateWrongDefinition(term, 2, random));
-        q.options.add(generateWrongDefinition(term, 3, random));
+        // Mauvaises réponses plausibles : définitions des concepts les plus proches
+        for (ConceptInfo neighbour : neighbours(concept, concepts)) {
+            String distractor = truncate(neighbour.definition, 120);
+            if (q.options.size() < 4 && !q.options.contains(distractor)) {
+                q.options.add(distractor);
+            }
+        }
+        for (int variant = 1; q.options.size() < 4; variant++) {
+            q.options.add(generateWrongDefinition(term, variant, random));
+        }
         
         // Mélanger les options
         shuffleOptionsKeepingCorrect(q, random);
@@ -387,7 +282,9 @@ public class QuizGeneratorAgent {
     /**
      * Crée une question basée sur un fait
      */
-    private GeneratedQuestion createFactQuestion(String fact, String difficulty, Random random) {
+    private GeneratedQuestion createFactQuestion(FactInfo factInfo, List<ConceptInfo> concepts,
+                                                 String difficulty, Random random) {
+        String fact = factInfo.text;
         GeneratedQuestion q = new GeneratedQuestion();
         q.difficulty = difficulty;
         
@@ -407,8 +304,8 @@ public class QuizGeneratorAgent {
         q.correctIndex = 0;
         
         // Mauvaises réponses
-        q.options.add(generateWrongFact(fact, 1));
-        q.options.add(generateWrongFact(fact, 2));
+        q.options.add(generateWrongFact(factInfo, concepts, 1));
+        q.options.add(generateWrongFact(factInfo, concepts, 2));
         q.options.add("Cette information n'est pas abordée dans le cours");
         
         shuffleOptionsKeepingCorrect(q, random);
@@ -421,7 +318,8 @@ public class QuizGeneratorAgent {
     /**
      * Crée une question d'application
      */
-    private GeneratedQuestion createApplicationQuestion(ConceptInfo concept, String difficulty, Random random) {
+    private GeneratedQuestion createApplicationQuestion(ConceptInfo concept, List<ConceptInfo> concepts,
+                                                        String difficulty, Random random) {
         GeneratedQuestion q = new GeneratedQuestion();
         q.difficulty = difficulty;
         
@@ -430,9 +328,15 @@ public class QuizGeneratorAgent {
         q.options.add("En suivant les principes décrits: " + truncate(concept.definition, 80));
         q.correctIndex = 0;
         
+        // Principes d'un concept voisin : distracteur plausible
+        List<ConceptInfo> neighbours = neighbours(concept, concepts);
+        if (!neighbours.isEmpty()) {
+            String distractor = "En suivant les principes décrits: " + truncate(neighbours.get(0).definition, 80);
+            if (!q.options.contains(distractor)) q.options.add(distractor);
+        }
         q.options.add("Ce concept n'a pas d'application pratique mentionnée");
         q.options.add("L'application nécessite des connaissances non couvertes par le cours");
-        q.options.add("Le cours ne propose pas d'application pour ce concept");
+        if (q.options.size() < 4) q.options.add("Le cours ne propose pas d'application pour ce concept");
         
         shuffleOptionsKeepingCorrect(q, random);
         
@@ -444,13 +348,13 @@ public class QuizGeneratorAgent {
     /**
      * Crée une question d'analyse
      */
-    private GeneratedQuestion createAnalysisQuestion(List<String> facts, int index, String difficulty, Random random) {
+    private GeneratedQuestion createAnalysisQuestion(List<FactInfo> facts, int index, String difficulty, Random random) {
         if (facts.isEmpty()) return null;
         
         GeneratedQuestion q = new GeneratedQuestion();
         q.difficulty = difficulty;
         
-        String fact = facts.get(index % facts.size());
+        String fact = facts.get(index % facts.size()).text;
         
         q.question = "En analysant le contenu du cours, quelle conclusion peut-on tirer ?";
         
@@ -486,7 +390,20 @@ public class QuizGeneratorAgent {
     /**
      * Génère un faux fait plausible
      */
-    private String generateWrongFact(String fact, int variant) {
+    private String generateWrongFact(FactInfo factInfo, List<ConceptInfo> concepts, int variant) {
+        String fact = factInfo.text;
+        
+        // Substituer au concept cité son plus proche voisin
+        if (variant == 1 && factInfo.conceptIndex >= 0 && factInfo.conceptIndex < concepts.size()) {
+            ConceptInfo cited = concepts.get(factInfo.conceptIndex);
+            for (ConceptInfo neighbour : neighbours(cited, concepts)) {
+                String substituted = replaceIgnoreCase(fact, cited.term, neighbour.term);
+                if (!substituted.equals(fact)) {
+                    return truncate(substituted, 120);
+                }
+            }
+        }
+        
         // Inverser ou modifier légèrement le fait
         String modified = fact;
         
@@ -504,6 +421,34 @@ public class QuizGeneratorAgent {
         return truncate(modified, 120);
     }
 
+    /**
+     * Voisins d'un concept dans l'index de distracteurs (lecture directe, sans calcul)
+     */
+    private List<ConceptInfo> neighbours(ConceptInfo concept, List<ConceptInfo> concepts) {
+        List<ConceptInfo> result = new ArrayList<>(concept.neighbours.length);
+        for (int index : concept.neighbours) {
+            if (index >= 0 && index < concepts.size()) {
+                ConceptInfo neighbour = concepts.get(index);
+                if (!neighbour.term.equalsIgnoreCase(concept.term)) result.add(neighbour);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remplace la première occurrence de target, sans tenir compte de la casse
+     * Comparaison sur le texte d'origine : toLowerCase() peut changer la longueur (ex. « İ ») et décaler les indices.
+     */
+    private String replaceIgnoreCase(String text, String target, String replacement) {
+        if (target.isEmpty()) return text;
+        for (int index = 0; index + target.length() <= text.length(); index++) {
+            if (text.regionMatches(true, index, target, 0, target.length())) {
+                return text.substring(0, index) + replacement + text.substring(index + target.length());
+            }
+        }
+        return text;
+    }
+
     /**
      * Mélange les options tout en gardant trace de la bonne réponse
      */
@@ -515,7 +460,7 @@ public class QuizGeneratorAgent {
 
     private String truncate(String text, int maxLength) {
         if (text == null) return "";
-        text = text.trim().replaceAll("\\s+", " ");
+        text = WHITESPACE.matcher(text.trim()).replaceAll(" ");
         if (text.length() <= maxLength) return text;
         return text.substring(0, maxLength - 3) + "...";
     }
@@ -0,0 +1,212 @@
+package com.plateforme.educational.service;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.plateforme.educational.service.LLMService.QuizQuestionDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Analyse incrémentale de la réponse d'un modèle (tableau JSON de questions)
+ * Chaque question est lue par un JsonReader, sans arbre JSON, et transmise dès que son objet se ferme :
+ * en flux, le texte arrive par fragments (feed) et seul l'objet en cours est conservé ; une réponse
+ * complète est lue comme un flux de caractères (parse). Le texte qui précède le tableau (préambule,
+ * balise ```json) est ignoré, de même que les questions incomplètes ou invalides ; une réponse
+ * tronquée garde les questions déjà lues.
+ */
+@Slf4j
+final class QuizResponseStreamParser {
+
+    private final int limit;
+    private final Consumer<QuizQuestionDTO> handler;
+
+    // Objet en cours (une seule question en mémoire)
+    private final StringBuilder current = new StringBuilder();
+    private boolean arrayStarted;
+    private boolean finished;
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private int emitted;
+
+    QuizResponseStreamParser(int limit, Consumer<QuizQuestionDTO> handler) {
+        this.limit = limit;
+        this.handler = handler;
+    }
+
+    void feed(CharSequence text) {
+        for (int i = 0; i < text.length() && !finished; i++) {
+            char c = text.charAt(i);
+            if (!arrayStarted) {
+                arrayStarted = c == '[';
+                continue;
+            }
+            if (depth == 0) {
+                if (c == '{') {
+                    current.setLength(0);
+                    current.append(c);
+                    depth = 1;
+                } else if (c == ']') {
+                    finished = true;
+                }
+                continue;
+            }
+
+            current.append(c);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if ((c == '}' || c == ']') && --depth == 0) {
+                emit();
+            }
+        }
+    }
+
+    /**
+     * Lit une réponse complète comme un flux de caractères, question par question
+     * Une réponse tronquée ou mal formée garde les questions lues avant l'erreur.
+     */
+    void parse(Reader response) {
+        try {
+            JsonReader reader = new JsonReader(skipToArray(response));
+            reader.setLenient(true);
+            reader.beginArray();
+            while (!finished && reader.hasNext()) {
+                if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    reader.skipValue();
+                    continue;
+                }
+                accept(readQuestion(reader));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Réponse du modèle interrompue après {} question(s): {}", emitted, e.getMessage());
+        }
+        finished = true;
+    }
+
+    int emitted() {
+        return emitted;
+    }
+
+    private void emit() {
+        try {
+            accept(readQuestion(new JsonReader(new StringReader(current.toString()))));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Question ignorée dans la réponse du modèle: {}", e.getMessage());
+        }
+    }
+
+    private void accept(QuizQuestionDTO question) {
+        if (question == null) {
+            return;
+        }
+        emitted++;
+        handler.accept(question);
+        if (emitted >= limit) {
+            finished = true;
+        }
+    }
+
+    /**
+     * Lit un objet question sans construire d'arbre JSON ; null si un champ manque ou est invalide
+     * L'objet est toujours lu jusqu'au bout : le lecteur reste positionné sur la question suivante.
+     */
+    private static QuizQuestionDTO readQuestion(JsonReader reader) throws IOException {
+        String question = null;
+        List<String> options = null;
+        String correctAnswer = null;
+        String explanation = "";
+        boolean valid = true;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+            boolean scalar = token == JsonToken.STRING || token == JsonToken.NUMBER;
+            switch (name) {
+                case "question" -> question = scalar ? reader.nextString() : skip(reader);
+                case "correctAnswerIndex" -> correctAnswer = scalar ? reader.nextString() : skip(reader);
+                case "explanation" -> explanation = scalar ? reader.nextString() : Objects.toString(skip(reader), "");
+                case "options" -> {
+                    if (token != JsonToken.BEGIN_ARRAY) {
+                        skip(reader);
+                        break;
+                    }
+                    options = new ArrayList<>(4);
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        JsonToken option = reader.peek();
+                        if (option == JsonToken.STRING || option == JsonToken.NUMBER) {
+                            options.add(reader.nextString());
+                        } else {
+                            reader.skipValue();
+                            valid = false;
+                        }
+                    }
+                    reader.endArray();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (!valid || question == null || options == null || correctAnswer == null) {
+            log.debug("Question incomplète ignorée dans la réponse du modèle");
+            return null;
+        }
+        int correctIndex;
+        try {
+            correctIndex = Integer.parseInt(correctAnswer.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (correctIndex < 0 || correctIndex >= options.size()) {
+            log.debug("Index de bonne réponse hors des options, question ignorée");
+            return null;
+        }
+
+        QuizQuestionDTO dto = new QuizQuestionDTO();
+        dto.setQuestion(question);
+        dto.setOptions(options);
+        dto.setCorrectAnswerIndex(correctIndex);
+        dto.setExplanation(explanation);
+        return dto;
+    }
+
+    private static String skip(JsonReader reader) throws IOException {
+        reader.skipValue();
+        return null;
+    }
+
+    /**
+     * Écarte le texte qui précède le tableau (préambule, balise ```json)
+     */
+    private static Reader skipToArray(Reader response) throws IOException {
+        PushbackReader reader = new PushbackReader(response, 1);
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == '[') {
+                reader.unread(c);
+                break;
+            }
+        }
+        return reader;
+    }
+}
@@ -0,0 +1,328 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.entity.Course;
+import com.plateforme.educational.entity.QuizAttempt;
+import com.plateforme.educational.entity.QuizQuestion;
+import com.plateforme.educational.entity.User;
+import com.plateforme.educational.repository.QuizAttemptRepository;
+import com.plateforme.educational.repository.QuizQuestionRepository;
+import com.plateforme.educational.service.QuizGeneratorAgent.GeneratedQuestion;
+import com.plateforme.educational.util.Deadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération de quiz en flux (Server-Sent Events)
+ * La tentative est créée vide et l'étudiant est redirigé aussitôt ; les questions sont générées
+ * en arrière-plan, enregistrées une à une sur la tentative et poussées aux navigateurs abonnés
+ * dès qu'elles sont lues dans la réponse du modèle. Un abonné tardif reçoit d'abord les questions
+ * déjà enregistrées. La liste des abonnés d'une tentative sert de verrou : le rattrapage, la diffusion
+ * et la clôture ne s'entrelacent pas, et done est toujours envoyé après le rattrapage. Le délai jusqu'à la première question est mesuré (quiz.stream.first_question).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class QuizStreamingService {
+
+    private static final int CONTEXT_CHUNKS = 20;
+
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final QuizQuestionRepository quizQuestionRepository;
+    private final RAGService ragService;
+    private final LLMService llmService;
+    private final QuestionPoolService questionPoolService;
+    private final QuestionHistoryService questionHistoryService;
+    private final ExecutorService quizStreamExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${quiz.stream.timeout-ms:300000}")
+    private long timeoutMs;
+
+    // Navigateurs abonnés aux quiz en cours de génération
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Crée la tentative et lance la génération de ses questions après validation de la transaction
+     * L'échéance borne les appels au modèle ; au-delà, les questions manquantes sont générées localement.
+     */
+    public QuizAttempt start(User student, Course course, String difficulty, int numQuestions, Long seed,
+                             Deadline deadline) {
+        QuizAttempt.DifficultyLevel level;
+        try {
+            level = QuizAttempt.DifficultyLevel.valueOf(difficulty.toUpperCase());
+        } catch (Exception e) {
+            level = QuizAttempt.DifficultyLevel.BEGINNER;
+        }
+        long generationSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setStudent(student);
+        attempt.setCourse(course);
+        attempt.setDifficulty(level);
+        attempt.setTotalQuestions(0);
+        attempt.setGenerationSeed(generationSeed);
+        attempt.setGenerating(true);
+        attempt.setAgentDecision("Quiz intelligent généré en flux - Niveau: " + level +
+                                 ", Questions: " + numQuestions);
+        attempt = quizAttemptRepository.save(attempt);
+
+        Long attemptId = attempt.getId();
+        QuizAttempt.DifficultyLevel generationLevel = level;
+        boolean reproducible = seed != null;
+        long submittedAt = System.nanoTime();
+        afterCommit(() -> {
+            subscribers.put(attemptId, new CopyOnWriteArrayList<>());
+            submit(attemptId, generationLevel, numQuestions, generationSeed, reproducible, deadline, submittedAt);
+        });
+        return attempt;
+    }
+
+    /**
+     * Flux SSE d'une tentative : questions déjà enregistrées, puis questions à venir
+     * Événements : question {id, index, question, options}, done {total}, failed {message, total}
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribe(QuizAttempt attempt) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        List<SseEmitter> live = subscribers.get(attempt.getId());
+        if (live != null) {
+            synchronized (live) {
+                // Toujours en cours : les questions enregistrées après la lecture seront diffusées à cet abonné
+                if (subscribers.get(attempt.getId()) == live) {
+                    replay(emitter, attempt.getId());
+                    live.add(emitter);
+                    emitter.onCompletion(() -> live.remove(emitter));
+                    emitter.onTimeout(() -> live.remove(emitter));
+                    emitter.onError(e -> live.remove(emitter));
+                    return emitter;
+                }
+            }
+        }
+
+        // Génération terminée : toutes les questions sont en base
+        int total = replay(emitter, attempt.getId());
+        send(emitter, "done", Map.of("total", total));
+        emitter.complete();
+        return emitter;
+    }
+
+    /**
+     * Envoie les questions déjà enregistrées ; le navigateur ignore les doublons (même id)
+     */
+    private int replay(SseEmitter emitter, Long attemptId) {
+        List<QuizQuestion> saved = quizQuestionRepository.findByQuizAttemptIdOrderById(attemptId);
+        for (int i = 0; i < saved.size(); i++) {
+            send(emitter, "question", payload(saved.get(i), i));
+        }
+        return saved.size();
+    }
+
+    /**
+     * Au démarrage, clôt les tentatives dont la génération a été interrompue par l'arrêt du serveur :
+     * aucune tâche ne les terminera plus, et une tentative en cours de génération ne peut être soumise
+     * Elles gardent les questions déjà enregistrées. Les générations lancées par ce serveur depuis
+     * l'ouverture des connexions (présentes dans subscribers) ne sont pas touchées.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void closeInterruptedGenerations() {
+        List<QuizAttempt> interrupted = quizAttemptRepository.findByGeneratingTrue().stream()
+                .filter(attempt -> !subscribers.containsKey(attempt.getId()))
+                .toList();
+        for (QuizAttempt attempt : interrupted) {
+            attempt.setGenerating(false);
+            attempt.setTotalQuestions(attempt.getQuestions().size());
+            questionHistoryService.record(attempt.getStudent(), attempt.getCourse(), attempt.getQuestions());
+        }
+        if (!interrupted.isEmpty()) {
+            log.info("{} tentative(s) interrompue(s) par l'arrêt du serveur clôturée(s)", interrupted.size());
+        }
+    }
+
+    private void submit(Long attemptId, QuizAttempt.DifficultyLevel level, int numQuestions, long seed,
+                        boolean reproducible, Deadline deadline, long submittedAt) {
+        try {
+            quizStreamExecutor.execute(() -> generate(attemptId, level, numQuestions, seed, reproducible, deadline, submittedAt));
+        } catch (RejectedExecutionException e) {
+            fail(attemptId, "Serveur saturé, veuillez réessayer");
+        }
+    }
+
+    private void generate(Long attemptId, QuizAttempt.DifficultyLevel level, int numQuestions, long seed,
+                          boolean reproducible, Deadline deadline, long submittedAt) {
+        boolean useModel = llmService.useModel();
+        String source = useModel ? "llm" : "pool";
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int[] count = {0};
+        try {
+            if (useModel) {
+                List<String> context = transaction.execute(status ->
+                        ragService.getCourseContext(find(attemptId).getCourse(), CONTEXT_CHUNKS));
+                GenerationRequest request = llmService.request(context, level.name(), numQuestions, seed, reproducible, deadline);
+                llmService.streamQuizQuestions(request, dto ->
+                        append(attemptId, count, submittedAt, source, dto.getQuestion(), dto.getOptions(),
+                                dto.getCorrectAnswerIndex(), dto.getExplanation()));
+            } else {
+                List<GeneratedQuestion> questions = transaction.execute(status -> {
+                    QuizAttempt attempt = find(attemptId);
+                    return questionPoolService.draw(attempt.getStudent(), attempt.getCourse(), level, numQuestions, seed, reproducible);
+                });
+                for (GeneratedQuestion question : questions) {
+                    append(attemptId, count, submittedAt, source, question.question, question.options,
+                            question.correctIndex, question.explanation);
+                }
+            }
+            finish(attemptId);
+        } catch (RuntimeException e) {
+            // Le détail reste dans les journaux : il peut citer des hôtes ou des réponses du modèle
+            log.warn("Génération en flux du quiz {} interrompue après {} question(s)", attemptId, count[0], e);
+            fail(attemptId, "La génération du quiz a échoué, veuillez réessayer");
+        } finally {
+            Timer.builder("quiz.stream.duration")
+                    .description("Durée totale de la génération d'un quiz en flux")
+                    .tag("source", source)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Enregistre une question sur la tentative puis la pousse aux abonnés
+     */
+    private void append(Long attemptId, int[] count, long submittedAt, String source,
+                        String text, List<String> options, int correctIndex, String explanation) {
+        QuizQuestion question = new TransactionTemplate(transactionManager).execute(status -> {
+            QuizQuestion entity = new QuizQuestion();
+            entity.setQuizAttempt(quizAttemptRepository.getReferenceById(attemptId));
+            entity.setQuestionText(text);
+            entity.setOptions(new ArrayList<>(options));
+            entity.setCorrectAnswerIndex(correctIndex);
+            entity.setExplanation(explanation);
+            return quizQuestionRepository.save(entity);
+        });
+
+        int index = count[0]++;
+        if (index == 0) {
+            Timer.builder("quiz.stream.first_question")
+                    .description("Délai entre la demande de quiz et la première question enregistrée")
+                    .tag("source", source)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+        }
+        publish(attemptId, "question", payload(question, index));
+    }
+
+    private void finish(Long attemptId) {
+        int total = new TransactionTemplate(transactionManager).execute(status -> {
+            QuizAttempt attempt = find(attemptId);
+            attempt.setGenerating(false);
+            attempt.setTotalQuestions(attempt.getQuestions().size());
+            questionHistoryService.record(attempt.getStudent(), attempt.getCourse(), attempt.getQuestions());
+            return attempt.getTotalQuestions();
+        });
+        close(attemptId, "done", Map.of("total", total));
+    }
+
+    private void fail(Long attemptId, String message) {
+        int total = 0;
+        try {
+            total = new TransactionTemplate(transactionManager).execute(status -> {
+                QuizAttempt attempt = find(attemptId);
+                attempt.setGenerating(false);
+                attempt.setTotalQuestions(attempt.getQuestions().size());
+                return attempt.getTotalQuestions();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Impossible de clore la tentative {}", attemptId, e);
+        }
+        close(attemptId, "failed", Map.of("message", message, "total", total));
+    }
+
+    private QuizAttempt find(Long attemptId) {
+        return quizAttemptRepository.findById(attemptId)
+                .orElseThrow(() -> new IllegalStateException("Tentative " + attemptId + " introuvable"));
+    }
+
+    private void publish(Long attemptId, String event, Object data) {
+        List<SseEmitter> live = subscribers.get(attemptId);
+        if (live == null) {
+            return;
+        }
+        synchronized (live) {
+            for (SseEmitter emitter : live) {
+                send(emitter, event, data);
+            }
+        }
+    }
+
+    private void close(Long attemptId, String event, Object data) {
+        List<SseEmitter> live = subscribers.get(attemptId);
+        if (live == null) {
+            return;
+        }
+        synchronized (live) {
+            subscribers.remove(attemptId);
+            for (SseEmitter emitter : live) {
+                send(emitter, event, data);
+                emitter.complete();
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Navigateur parti : l'abonnement est retiré par onError / onCompletion
+            log.debug("Envoi SSE impossible: {}", e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> payload(QuizQuestion question, int index) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", question.getId());
+        payload.put("index", index);
+        payload.put("question", question.getQuestionText());
+        payload.put("options", question.getOptions());
+        return payload;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
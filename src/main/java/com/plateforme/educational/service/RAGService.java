@@ -9,10 +9,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -27,6 +23,8 @@ import java.util.stream.Collectors;
 public class RAGService {
 
     private final CourseChunkRepository chunkRepository;
+    private final ContentExtractionService contentExtractionService;
+    private final MemoryGovernor memoryGovernor;
     private static final int CHUNK_SIZE = 500; // Nombre de caractères par chunk
     private static final int CHUNK_OVERLAP = 100; // Chevauchement entre chunks
 
@@ -94,16 +92,16 @@ public class RAGService {
     }
 
     /**
-     * Récupère tout le contexte d'un cours pour la génération de quiz
+     * Récupère le contexte d'un cours pour la génération de quiz : ses premiers passages, dans l'ordre
      */
-    public String getCourseContext(Course course, int maxChunks) {
+    public List<String> getCourseContext(Course course, int maxChunks) {
         List<CourseChunk> chunks = chunkRepository.findByCourse(course);
         
         return chunks.stream()
                 .sorted(Comparator.comparingInt(CourseChunk::getChunkIndex))
                 .limit(maxChunks)
                 .map(CourseChunk::getContent)
-                .collect(Collectors.joining("\n\n"));
+                .collect(Collectors.toList());
     }
 
     /**
@@ -111,6 +109,11 @@ public class RAGService {
      * Cette méthode assemble toutes les sources de contenu pour une génération de quiz optimale
      */
     public String getFullCourseContext(Course course) {
+        return memoryGovernor.admit("course-context", memoryGovernor.estimateCourseBytes(course),
+                () -> assembleFullCourseContext(course));
+    }
+
+    private String assembleFullCourseContext(Course course) {
         StringBuilder fullContext = new StringBuilder();
         
         // 1. Titre et description du cours
@@ -142,7 +145,7 @@ public class RAGService {
         if (course.getFiles() != null && !course.getFiles().isEmpty()) {
             fullContext.append("=== FICHIERS ATTACHÉS ===\n");
             for (CourseFile file : course.getFiles()) {
-                String fileContent = extractFileContent(file);
+                String fileContent = contentExtractionService.extract(file);
                 if (!fileContent.isEmpty()) {
                     fullContext.append("--- ").append(file.getOriginalFilename()).append(" ---\n");
                     fullContext.append(fileContent).append("\n\n");
@@ -156,57 +159,6 @@ public class RAGService {
         return result;
     }
 
-    /**
-     * Extrait le contenu textuel d'un fichier
-     */
-    private String extractFileContent(CourseFile file) {
-        if (file == null || file.getStoragePath() == null) {
-            return "";
-        }
-        
-        String contentType = file.getContentType();
-        
-        // Fichiers texte
-        if (isTextFile(contentType, file.getOriginalFilename())) {
-            try {
-                return Files.readString(Paths.get(file.getStoragePath()), StandardCharsets.UTF_8);
-            } catch (IOException e) {
-                log.warn("Could not read text file: {}", file.getOriginalFilename());
-                return "";
-            }
-        }
-        
-        // TODO: Ajouter support pour PDF (avec Apache PDFBox)
-        // TODO: Ajouter support pour Word (avec Apache POI)
-        
-        return "";
-    }
-
-    /**
-     * Vérifie si un fichier est de type texte
-     */
-    private boolean isTextFile(String contentType, String filename) {
-        if (contentType != null) {
-            if (contentType.startsWith("text/") || 
-                contentType.contains("json") || 
-                contentType.contains("xml") ||
-                contentType.contains("javascript")) {
-                return true;
-            }
-        }
-        
-        if (filename != null) {
-            String lower = filename.toLowerCase();
-            return lower.endsWith(".txt") || lower.endsWith(".md") || 
-                   lower.endsWith(".json") || lower.endsWith(".xml") ||
-                   lower.endsWith(".html") || lower.endsWith(".java") ||
-                   lower.endsWith(".py") || lower.endsWith(".js") ||
-                   lower.endsWith(".css") || lower.endsWith(".sql");
-        }
-        
-        return false;
-    }
-
     /**
      * Découpe le texte en chunks avec chevauchement (VERSION ULTRA-SIMPLIFIÉE)
      */
@@ -0,0 +1,221 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.repository.CourseFileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Nettoyage des pièces jointes en arrière-plan
+ * - supprime les fichiers dont la ligne CourseFile a été effacée (hors du chemin de la requête)
+ * - réconcilie périodiquement le répertoire d'upload avec la base pour traiter les orphelins
+ *   (fichier écrit puis crash avant l'enregistrement en base)
+ * Les opérations sur le disque sont limitées en débit pour ne pas saturer les I/O
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadReaperService {
+
+    private final CourseFileRepository courseFileRepository;
+
+    @Value("${file.upload-dir:uploads}")
+    private String uploadDir;
+
+    @Value("${file.reaper.enabled:true}")
+    private boolean enabled;
+
+    // "delete" ou "quarantine"
+    @Value("${file.reaper.mode:quarantine}")
+    private String mode;
+
+    // Un fichier récent peut appartenir à un upload encore en cours
+    @Value("${file.reaper.grace-period-minutes:60}")
+    private long gracePeriodMinutes;
+
+    @Value("${file.reaper.max-files-per-second:20}")
+    private int maxFilesPerSecond;
+
+    @Value("${file.reaper.max-files-per-run:500}")
+    private int maxFilesPerRun;
+
+    private final Queue<Path> pendingDeletions = new ConcurrentLinkedQueue<>();
+
+    private Path coursesRoot;
+    private Path quarantineRoot;
+    private long lastActionNanos;
+
+    @PostConstruct
+    void init() {
+        Path uploadRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.coursesRoot = uploadRoot.resolve("courses");
+        this.quarantineRoot = uploadRoot.resolve("quarantine");
+    }
+
+    /**
+     * Programme la suppression de fichiers une fois la transaction courante validée
+     * (si elle est annulée, les fichiers restent en place avec leurs lignes)
+     */
+    public void deleteAfterCommit(Collection<Path> paths) {
+        if (paths.isEmpty()) {
+            return;
+        }
+        List<Path> copy = List.copyOf(paths);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendingDeletions.addAll(copy);
+                }
+            });
+        } else {
+            pendingDeletions.addAll(copy);
+        }
+    }
+
+    /**
+     * Programme la suppression immédiate de fichiers qui n'ont jamais été enregistrés en base
+     */
+    public void deleteLater(Collection<Path> paths) {
+        pendingDeletions.addAll(paths);
+    }
+
+    /**
+     * Supprime les fichiers en attente
+     */
+    @Scheduled(fixedDelayString = "${file.reaper.drain-interval-ms:5000}")
+    public void drainPendingDeletions() {
+        int processed = 0;
+        Path path;
+        while (processed < maxFilesPerRun && (path = pendingDeletions.poll()) != null) {
+            pace();
+            try {
+                Files.deleteIfExists(path);
+                deleteDirectoryIfEmpty(path.getParent());
+            } catch (IOException e) {
+                log.warn("Impossible de supprimer le fichier {}", path, e);
+            }
+            processed++;
+        }
+        if (processed > 0) {
+            log.info("Reaper: {} fichier(s) supprimé(s), {} en attente", processed, pendingDeletions.size());
+        }
+    }
+
+    /**
+     * Compare le contenu de uploads/courses aux lignes CourseFile et traite les orphelins
+     */
+    @Scheduled(initialDelayString = "${file.reaper.initial-delay-ms:60000}",
+               fixedDelayString = "${file.reaper.scan-interval-ms:3600000}")
+    public void reconcile() {
+        if (!enabled || !Files.isDirectory(coursesRoot)) {
+            return;
+        }
+
+        Set<Path> known = courseFileRepository.findAllStoragePaths().stream()
+                .map(p -> Paths.get(p).toAbsolutePath().normalize())
+                .collect(Collectors.toSet());
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(gracePeriodMinutes));
+
+        int orphans = 0;
+        try (Stream<Path> files = Files.walk(coursesRoot, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (orphans >= maxFilesPerRun) {
+                    break;
+                }
+                if (!Files.isRegularFile(file) || known.contains(file.toAbsolutePath().normalize())) {
+                    continue;
+                }
+                if (isRecent(file, cutoff)) {
+                    continue;
+                }
+                pace();
+                handleOrphan(file);
+                orphans++;
+            }
+        } catch (IOException e) {
+            log.warn("Reaper: parcours de {} impossible", coursesRoot, e);
+        }
+
+        if (orphans > 0) {
+            log.info("Reaper: {} fichier(s) orphelin(s) traité(s) (mode {})", orphans, mode);
+        }
+    }
+
+    private boolean isRecent(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isAfter(cutoff);
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private void handleOrphan(Path file) {
+        try {
+            if ("delete".equalsIgnoreCase(mode)) {
+                Files.deleteIfExists(file);
+            } else {
+                Path target = quarantineRoot.resolve(coursesRoot.relativize(file));
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            deleteDirectoryIfEmpty(file.getParent());
+        } catch (IOException e) {
+            log.warn("Reaper: impossible de traiter l'orphelin {}", file, e);
+        }
+    }
+
+    private void deleteDirectoryIfEmpty(Path dir) {
+        if (dir == null || dir.equals(coursesRoot) || !Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(dir)) {
+            if (entries.findAny().isEmpty()) {
+                Files.deleteIfExists(dir);
+            }
+        } catch (IOException e) {
+            log.debug("Répertoire {} conservé: {}", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * Limite le nombre d'opérations disque par seconde
+     */
+    private void pace() {
+        if (maxFilesPerSecond <= 0) {
+            return;
+        }
+        long interval = TimeUnit.SECONDS.toNanos(1) / maxFilesPerSecond;
+        long wait = lastActionNanos + interval - System.nanoTime();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lastActionNanos = System.nanoTime();
+    }
+}
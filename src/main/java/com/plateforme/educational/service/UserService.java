@@ -17,6 +17,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final QuestionHistoryService questionHistoryService;
 
     public User createUser(User user) {
         if (userRepository.existsByUsername(user.getUsername())) {
@@ -42,6 +43,7 @@ public class UserService {
     }
 
     public void deleteUser(Long id) {
+        questionHistoryService.deleteForStudent(id);
         userRepository.deleteById(id);
     }
 
@@ -0,0 +1,144 @@
+package com.plateforme.educational.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Automate d'Aho-Corasick insensible à la casse
+ * Recherche simultanément tous les motifs d'un vocabulaire en un seul passage sur le texte
+ * (temps linéaire en la longueur du texte, quel que soit le nombre de motifs).
+ * L'automate est immuable après construction et peut être partagé entre threads.
+ */
+public final class AhoCorasick {
+
+    /**
+     * Reçoit chaque occurrence trouvée ; retourner false interrompt le parcours
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        boolean onMatch(int patternIndex, int start, int end);
+    }
+
+    private final int[] charClass;     // caractère (minuscule) -> indice dans l'alphabet, -1 si absent
+    private final int alphabetSize;
+    private final int[][] transitions; // état x classe -> état (automate déterministe complet)
+    private final int[][] outputs;     // état -> motifs reconnus en ce point
+    private final int[] patternLengths;
+
+    public AhoCorasick(List<String> patterns) {
+        this.patternLengths = new int[patterns.size()];
+
+        // Alphabet réduit aux caractères présents dans les motifs
+        int maxChar = 0;
+        for (String pattern : patterns) {
+            for (int i = 0; i < pattern.length(); i++) {
+                maxChar = Math.max(maxChar, Character.toLowerCase(pattern.charAt(i)));
+            }
+        }
+        this.charClass = new int[maxChar + 1];
+        Arrays.fill(charClass, -1);
+        int classes = 0;
+        for (String pattern : patterns) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = Character.toLowerCase(pattern.charAt(i));
+                if (charClass[c] < 0) {
+                    charClass[c] = classes++;
+                }
+            }
+        }
+        this.alphabetSize = Math.max(1, classes);
+
+        // 1. Trie
+        List<int[]> gotoTable = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        gotoTable.add(newRow());
+        out.add(new ArrayList<>());
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            patternLengths[p] = pattern.length();
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int cls = charClass[Character.toLowerCase(pattern.charAt(i))];
+                if (gotoTable.get(state)[cls] < 0) {
+                    gotoTable.get(state)[cls] = gotoTable.size();
+                    gotoTable.add(newRow());
+                    out.add(new ArrayList<>());
+                }
+                state = gotoTable.get(state)[cls];
+            }
+            out.get(state).add(p);
+        }
+
+        // 2. Liens d'échec (parcours en largeur) et complétion des transitions
+        int stateCount = gotoTable.size();
+        int[] failure = new int[stateCount];
+        int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        int[] root = gotoTable.get(0);
+        for (int cls = 0; cls < alphabetSize; cls++) {
+            if (root[cls] < 0) {
+                root[cls] = 0;
+            } else {
+                failure[root[cls]] = 0;
+                queue[tail++] = root[cls];
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            int[] row = gotoTable.get(state);
+            out.get(state).addAll(out.get(failure[state]));
+            for (int cls = 0; cls < alphabetSize; cls++) {
+                int next = row[cls];
+                if (next < 0) {
+                    row[cls] = gotoTable.get(failure[state])[cls];
+                } else {
+                    failure[next] = gotoTable.get(failure[state])[cls];
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        this.transitions = gotoTable.toArray(new int[0][]);
+        this.outputs = new int[stateCount][];
+        for (int s = 0; s < stateCount; s++) {
+            outputs[s] = out.get(s).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Parcourt le texte et signale chaque occurrence de motif
+     */
+    public void scan(CharSequence text, MatchHandler handler) {
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int cls = c < charClass.length ? charClass[c] : -1;
+            state = cls < 0 ? 0 : transitions[state][cls];
+            for (int pattern : outputs[state]) {
+                if (!handler.onMatch(pattern, i + 1 - patternLengths[pattern], i + 1)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Vrai si au moins un motif apparaît dans le texte
+     */
+    public boolean containsAny(CharSequence text) {
+        boolean[] found = new boolean[1];
+        scan(text, (pattern, start, end) -> {
+            found[0] = true;
+            return false;
+        });
+        return found[0];
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
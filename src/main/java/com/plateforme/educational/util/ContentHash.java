@@ -0,0 +1,40 @@
+package com.plateforme.educational.util;
+
+import java.util.List;
+
+/**
+ * Empreinte 64 bits exacte d'un texte (FNV-1a sur les caractères, sans normalisation)
+ */
+public final class ContentHash {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private ContentHash() {
+    }
+
+    public static long of(CharSequence text) {
+        return mix(OFFSET_BASIS, text);
+    }
+
+    /**
+     * Empreinte d'une suite de textes ; un séparateur distingue ["ab", "c"] de ["a", "bc"]
+     */
+    public static long of(List<? extends CharSequence> parts) {
+        long hash = OFFSET_BASIS;
+        for (CharSequence part : parts) {
+            hash = mix(hash, part);
+            hash = (hash ^ 0xff) * PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            hash = (hash ^ (c & 0xff)) * PRIME;
+            hash = (hash ^ (c >>> 8)) * PRIME;
+        }
+        return hash;
+    }
+}
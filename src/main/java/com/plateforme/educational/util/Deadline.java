@@ -0,0 +1,63 @@
+package com.plateforme.educational.util;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Échéance d'une requête, fixée à son arrivée et transmise jusqu'aux appels réseau
+ * Chaque appel borne son propre délai par le temps restant (cap) : une requête dont le budget
+ * est épuisé n'engage plus de nouvel appel.
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(0, false);
+
+    private final long expiresAtNanos;
+    private final boolean bounded;
+
+    private Deadline(long expiresAtNanos, boolean bounded) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.bounded = bounded;
+    }
+
+    public static Deadline after(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Délai invalide: " + millis + " ms");
+        }
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis), true);
+    }
+
+    /**
+     * Pas d'échéance : seuls les délais propres à chaque appel s'appliquent
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public boolean isExpired() {
+        return bounded && System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /**
+     * Temps restant en millisecondes (0 si l'échéance est passée, Long.MAX_VALUE sans échéance)
+     */
+    public long remainingMillis() {
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    /**
+     * Le plus court du délai donné et du temps restant
+     */
+    public Duration cap(Duration timeout) {
+        long remaining = remainingMillis();
+        return remaining < timeout.toMillis() ? Duration.ofMillis(remaining) : timeout;
+    }
+
+    @Override
+    public String toString() {
+        return bounded ? "Deadline[" + remainingMillis() + " ms]" : "Deadline[none]";
+    }
+}
@@ -0,0 +1,76 @@
+package com.plateforme.educational.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Ensemble immuable d'empreintes 64 bits, stocké comme tableau trié sans doublon
+ * 8 octets par empreinte, recherche par dichotomie ; la forme sérialisée (toBytes) est
+ * directement celle du tableau, sans en-tête.
+ */
+public final class FingerprintSet {
+
+    public static final FingerprintSet EMPTY = new FingerprintSet(new long[0]);
+
+    private final long[] sorted;
+
+    private FingerprintSet(long[] sorted) {
+        this.sorted = sorted;
+    }
+
+    public static FingerprintSet of(Collection<Long> fingerprints) {
+        return EMPTY.with(fingerprints);
+    }
+
+    public static FingerprintSet fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return EMPTY;
+        }
+        if (bytes.length % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Taille invalide pour un ensemble d'empreintes: " + bytes.length);
+        }
+        long[] values = new long[bytes.length / Long.BYTES];
+        ByteBuffer.wrap(bytes).asLongBuffer().get(values);
+        return new FingerprintSet(values);
+    }
+
+    public boolean contains(long fingerprint) {
+        return Arrays.binarySearch(sorted, fingerprint) >= 0;
+    }
+
+    public int size() {
+        return sorted.length;
+    }
+
+    /**
+     * Nouvel ensemble augmenté des empreintes données (fusion de deux tableaux triés)
+     */
+    public FingerprintSet with(Collection<Long> fingerprints) {
+        long[] added = fingerprints.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        if (added.length == 0) {
+            return this;
+        }
+        long[] merged = new long[sorted.length + added.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < sorted.length || j < added.length) {
+            long next;
+            if (j == added.length || (i < sorted.length && sorted[i] <= added[j])) {
+                next = sorted[i++];
+                if (j < added.length && added[j] == next) j++;
+            } else {
+                next = added[j++];
+            }
+            merged[k++] = next;
+        }
+        return new FingerprintSet(k == merged.length ? merged : Arrays.copyOf(merged, k));
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(sorted.length * Long.BYTES);
+        buffer.asLongBuffer().put(sorted);
+        return buffer.array();
+    }
+}
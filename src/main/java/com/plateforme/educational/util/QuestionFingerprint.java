@@ -0,0 +1,55 @@
+package com.plateforme.educational.util;
+
+import java.util.List;
+
+/**
+ * Empreinte 64 bits d'une question (FNV-1a sur l'énoncé et la bonne réponse, normalisés)
+ * Deux questions identiques aux espaces et à la casse près ont la même empreinte. La bonne réponse
+ * en fait partie : les générateurs réutilisent un même énoncé (« Laquelle de ces affirmations est
+ * correcte ? ») pour des questions différentes. Elle est prise par son texte, pas par son indice,
+ * que le mélange des options change.
+ */
+public final class QuestionFingerprint {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private QuestionFingerprint() {
+    }
+
+    /**
+     * Empreinte d'une question à choix multiples (réponse vide si l'indice est invalide)
+     */
+    public static long of(CharSequence questionText, List<String> options, Integer correctIndex) {
+        String answer = options != null && correctIndex != null && correctIndex >= 0 && correctIndex < options.size()
+                && options.get(correctIndex) != null ? options.get(correctIndex) : "";
+        long hash = mix(OFFSET_BASIS, questionText);
+        // Séparateur absent des textes normalisés : ("a b", "c") et ("a", "b c") diffèrent
+        hash = mix(hash, '\u0000');
+        return mix(hash, answer);
+    }
+
+    private static long mix(long hash, CharSequence text) {
+        boolean pendingSpace = false;
+        boolean started = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = started;
+                continue;
+            }
+            if (pendingSpace) {
+                hash = mix(hash, ' ');
+                pendingSpace = false;
+            }
+            hash = mix(hash, Character.toLowerCase(c));
+            started = true;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, char c) {
+        hash = (hash ^ (c & 0xff)) * PRIME;
+        return (hash ^ (c >>> 8)) * PRIME;
+    }
+}
@@ -0,0 +1,175 @@
+package com.plateforme.educational.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Découpage d'un texte en phrases, en un seul passage et sans copie
+ * Les phrases sont des vues (CharSequence) sur le texte d'origine, débarrassées des blancs
+ * de début et de fin ; seules celles que l'appelant conserve sont converties en String.
+ * Un point ne termine pas la phrase après une abréviation courante ou une initiale,
+ * entre deux chiffres (3.14, v2.1) ou à l'intérieur d'un mot (www.site.fr).
+ */
+public final class SentenceSegmenter {
+
+    private static final Set<String> ABBREVIATIONS = Set.of(
+        "m", "mm", "mme", "mmes", "mlle", "dr", "pr", "st", "ste", "cf", "ex",
+        "fig", "réf", "p", "pp", "vol", "chap", "éd", "art", "al", "env", "approx", "vs", "av", "apr"
+    );
+
+    private SentenceSegmenter() {
+    }
+
+    /**
+     * Découpe le texte : calcul unique, à partager entre toutes les étapes d'extraction
+     */
+    public static Segmentation segment(String text) {
+        List<CharSequence> sentences = new ArrayList<>();
+        List<CharSequence> lines = new ArrayList<>();
+        int sentenceStart = 0;
+        int lineStart = 0;
+        int n = text.length();
+
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                addSpan(lines, text, lineStart, i);
+                lineStart = i + 1;
+            } else if ((c == '.' || c == '!' || c == '?') && (c != '.' || endsSentence(text, i))) {
+                // Une suite de ponctuations (« ... », « ?! ») forme une seule coupure
+                int end = i + 1;
+                while (end < n && isTerminator(text.charAt(end))) {
+                    end++;
+                }
+                addSpan(sentences, text, sentenceStart, i);
+                addSpan(lines, text, lineStart, i);
+                sentenceStart = end;
+                lineStart = end;
+                i = end - 1;
+            }
+        }
+        addSpan(sentences, text, sentenceStart, n);
+        addSpan(lines, text, lineStart, n);
+        return new Segmentation(text, sentences, lines);
+    }
+
+    /**
+     * Résultat du découpage d'un texte
+     */
+    public static final class Segmentation {
+
+        private final String text;
+        private final List<CharSequence> sentences;
+        private final List<CharSequence> lines;
+
+        private Segmentation(String text, List<CharSequence> sentences, List<CharSequence> lines) {
+            this.text = text;
+            this.sentences = Collections.unmodifiableList(sentences);
+            this.lines = Collections.unmodifiableList(lines);
+        }
+
+        public String text() {
+            return text;
+        }
+
+        /**
+         * Phrases, coupées uniquement sur la ponctuation finale
+         */
+        public List<CharSequence> sentences() {
+            return sentences;
+        }
+
+        /**
+         * Phrases coupées en plus à chaque fin de ligne (titres, listes, tableaux)
+         */
+        public List<CharSequence> lines() {
+            return lines;
+        }
+    }
+
+    /**
+     * Vue sur une portion du texte
+     */
+    private static final class Span implements CharSequence {
+
+        private final String text;
+        private final int start;
+        private final int end;
+
+        private Span(String text, int start, int end) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return text.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > length() || from > to) {
+                throw new IndexOutOfBoundsException("[" + from + ", " + to + ") hors de [0, " + length() + ")");
+            }
+            return new Span(text, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return text.substring(start, end);
+        }
+    }
+
+    private static void addSpan(List<CharSequence> spans, String text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        if (start < end) {
+            spans.add(new Span(text, start, end));
+        }
+    }
+
+    /**
+     * Vrai si le point en position i termine la phrase
+     */
+    private static boolean endsSentence(String text, int i) {
+        int n = text.length();
+        char next = i + 1 < n ? text.charAt(i + 1) : ' ';
+        // Nombre décimal, version, adresse ou sigle : le point est dans un mot
+        if (Character.isLetterOrDigit(next)) {
+            return false;
+        }
+
+        // Mot qui précède le point : initiale ou abréviation connue
+        int wordStart = i;
+        while (wordStart > 0 && Character.isLetter(text.charAt(wordStart - 1))) {
+            wordStart--;
+        }
+        int wordLength = i - wordStart;
+        if (wordLength == 1 && Character.isUpperCase(text.charAt(wordStart))) {
+            return false;
+        }
+        if (wordLength > 0 && wordLength <= 6
+                && ABBREVIATIONS.contains(text.substring(wordStart, i).toLowerCase())) {
+            return false;
+        }
+
+        // Suite en minuscule sur la même ligne : pas une nouvelle phrase
+        int j = i + 1;
+        while (j < n && text.charAt(j) == ' ') {
+            j++;
+        }
+        return j == n || !Character.isLowerCase(text.charAt(j));
+    }
+
+    private static boolean isTerminator(char c) {
+        return c == '.' || c == '!' || c == '?';
+    }
+}
@@ -0,0 +1,96 @@
+package com.plateforme.educational.util;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Regroupement des calculs identiques concurrents (single-flight)
+ * Le premier appelant d'une clé exécute le calcul sur son propre thread ; les appels de même clé
+ * qui arrivent pendant ce temps attendent et reçoivent le même résultat (ou la même exception).
+ * Rien n'est conservé une fois le calcul terminé : ce n'est pas un cache.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Résultat d'un appel ; shared est vrai si le calcul a été fait pour un autre appelant
+     */
+    public record Outcome<V>(V value, boolean shared) {}
+
+    public Outcome<V> execute(K key, Supplier<V> work) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return new Outcome<>(join(existing), true);
+        }
+        return lead(key, mine, work);
+    }
+
+    /**
+     * Comme execute(key, work), mais un appelant qui attend le calcul d'un autre n'attend que jusqu'à
+     * sa propre échéance ; il fait alors le calcul lui-même, qui voit la même échéance
+     */
+    public Outcome<V> execute(K key, Supplier<V> work, Deadline deadline) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing == null) {
+            return lead(key, mine, work);
+        }
+        try {
+            return new Outcome<>(existing.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS), true);
+        } catch (TimeoutException e) {
+            return new Outcome<>(work.get(), false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Attente d'un calcul partagé interrompue");
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause(), new CompletionException(e.getCause()));
+        }
+    }
+
+    private Outcome<V> lead(K key, CompletableFuture<V> mine, Supplier<V> work) {
+        try {
+            V value = work.get();
+            mine.complete(value);
+            return new Outcome<>(value, false);
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Nombre de calculs en cours
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause(), e);
+        }
+    }
+
+    // Exception du calcul partagé, relancée telle quelle
+    private static RuntimeException rethrow(Throwable cause, RuntimeException wrapper) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return wrapper;
+    }
+}
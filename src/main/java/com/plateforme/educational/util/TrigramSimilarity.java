@@ -0,0 +1,82 @@
+package com.plateforme.educational.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Similarité de textes par trigrammes de caractères (cosinus des fréquences)
+ * Les voisins sont calculés via un index inversé : seuls les textes partageant au moins
+ * un trigramme sont comparés.
+ */
+public final class TrigramSimilarity {
+
+    private TrigramSimilarity() {
+    }
+
+    /**
+     * Pour chaque texte, indices des k textes les plus proches, du plus proche au moins proche
+     * (les textes sans trigramme commun ne sont jamais voisins)
+     */
+    public static int[][] nearestNeighbours(List<String> texts, int k) {
+        int n = texts.size();
+        List<Map<Long, Integer>> vectors = new ArrayList<>(n);
+        double[] norms = new double[n];
+        Map<Long, List<int[]>> postings = new HashMap<>();
+
+        for (int i = 0; i < n; i++) {
+            Map<Long, Integer> vector = trigrams(texts.get(i));
+            vectors.add(vector);
+            double norm = 0;
+            for (Map.Entry<Long, Integer> entry : vector.entrySet()) {
+                norm += (double) entry.getValue() * entry.getValue();
+                postings.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(new int[]{i, entry.getValue()});
+            }
+            norms[i] = Math.sqrt(norm);
+        }
+
+        int[][] neighbours = new int[n][];
+        double[] scores = new double[n];
+        List<Integer> touched = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            for (Map.Entry<Long, Integer> entry : vectors.get(i).entrySet()) {
+                for (int[] posting : postings.get(entry.getKey())) {
+                    int j = posting[0];
+                    if (j == i) continue;
+                    if (scores[j] == 0) touched.add(j);
+                    scores[j] += (double) entry.getValue() * posting[1];
+                }
+            }
+
+            // Les k meilleurs scores (tas min de taille k)
+            PriorityQueue<double[]> best = new PriorityQueue<>(
+                    (a, b) -> a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(b[1], a[1]));
+            for (int j : touched) {
+                double cosine = scores[j] / (norms[i] * norms[j]);
+                best.add(new double[]{cosine, j});
+                if (best.size() > k) best.poll();
+                scores[j] = 0;
+            }
+            touched.clear();
+
+            int[] result = new int[best.size()];
+            for (int r = result.length - 1; r >= 0; r--) {
+                result[r] = (int) best.poll()[1];
+            }
+            neighbours[i] = result;
+        }
+        return neighbours;
+    }
+
+    private static Map<Long, Integer> trigrams(String text) {
+        Map<Long, Integer> vector = new HashMap<>();
+        String normalized = " " + text.toLowerCase().replaceAll("\\s+", " ").trim() + " ";
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            long key = ((long) normalized.charAt(i) << 32) | ((long) normalized.charAt(i + 1) << 16) | normalized.charAt(i + 2);
+            vector.merge(key, 1, Integer::sum);
+        }
+        return vector;
+    }
+}
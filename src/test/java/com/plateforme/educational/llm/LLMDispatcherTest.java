@@ -0,0 +1,135 @@
+package com.plateforme.educational.llm;
+
+import com.plateforme.educational.util.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LLMDispatcher face au serveur simulé (LLMStubServer) : latence de 20 à 30 ms, 8 % de pics
+ * à 1,5 s et 4 % de réponses 503. Les pics doivent être absorbés par la requête doublée et
+ * les erreurs par un nouvel essai, dans l'échéance de chaque demande. Un pic dont le doublon
+ * échoue aussi (pic ou 503) reste attendu : le p95 est donc borné par les doublements, le p99
+ * seulement par l'échéance. Les tirages du serveur sont initialisés par une graine fixe : les pics et
+ * les erreurs tombent sur les mêmes requêtes à chaque exécution.
+ */
+class LLMDispatcherTest {
+
+    private static final int WARM_UP = 40;
+    private static final int REQUESTS = 200;
+    private static final double SPIKE_PROBABILITY = 0.08;
+    private static final long SPIKE_LATENCY_MS = 1_500;
+    private static final long DEADLINE_MS = 3_000;
+    private static final long STUB_SEED = 20240705L;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService llmRequestExecutor = Executors.newFixedThreadPool(8);
+    private LLMStubServer stub;
+    private LLMDispatcher dispatcher;
+    private LLMClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+        stub = new LLMStubServer();
+        ReflectionTestUtils.setField(stub, "port", port);
+        ReflectionTestUtils.setField(stub, "threads", 16);
+        ReflectionTestUtils.setField(stub, "latencyMs", 20L);
+        ReflectionTestUtils.setField(stub, "jitterMs", 10L);
+        ReflectionTestUtils.setField(stub, "tokensPerSecond", 0);
+        ReflectionTestUtils.setField(stub, "spikeProbability", 0.0);
+        ReflectionTestUtils.setField(stub, "spikeLatencyMs", SPIKE_LATENCY_MS);
+        ReflectionTestUtils.setField(stub, "errorRate", 0.04);
+        ReflectionTestUtils.setField(stub, "seed", STUB_SEED);
+        stub.start();
+
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        client = new OllamaClient(httpClient, 5_000, "http://localhost:" + port, "stub", 0.7);
+        // Limiteur et disjoncteur hors jeu : les 503 simulés ne doivent ni ouvrir le disjoncteur, ni
+        // réduire la limite au point de refuser le doublon ou l'essai suivant (requête perdante pas encore libérée)
+        LLMCallGuard guard = new LLMCallGuard(meterRegistry, 10_000, 8, 4, 64, 0.7, 1_000, 30_000);
+        dispatcher = new LLMDispatcher(guard, llmRequestExecutor, meterRegistry, 4, 20, 200, true, 0.95, 20, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop();
+        llmRequestExecutor.shutdownNow();
+    }
+
+    @Test
+    void hedgesSpikesAndRetriesErrorsWithinDeadline() {
+        // Échantillons de latence nécessaires avant le premier doublement (hedge.min-samples), sans pic :
+        // un pic non doublé resterait dans la fenêtre et relèverait le délai de doublement
+        for (int i = 0; i < WARM_UP; i++) {
+            dispatcher.complete(client, "Génère exactement 2 questions", i, Deadline.after(DEADLINE_MS));
+        }
+        ReflectionTestUtils.setField(stub, "spikeProbability", SPIKE_PROBABILITY);
+        double hedgesBefore = count("llm.hedge.sent");
+        double retriesBefore = count("llm.retry");
+        int stubRequestsBefore = stubRequests();
+
+        List<Long> latencies = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            long start = System.nanoTime();
+            String response = dispatcher.complete(client, "Génère exactement 2 questions", WARM_UP + i,
+                    Deadline.after(DEADLINE_MS));
+            latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            assertTrue(response.contains("Question simulée n°2"), response);
+        }
+
+        double hedges = count("llm.hedge.sent") - hedgesBefore;
+        double retries = count("llm.retry") - retriesBefore;
+        int stubRequests = stubRequests() - stubRequestsBefore;
+        Collections.sort(latencies);
+        long p50 = latencies.get(REQUESTS / 2);
+        long p95 = latencies.get(REQUESTS * 95 / 100 - 1);
+        long p99 = latencies.get(REQUESTS * 99 / 100 - 1);
+        long max = latencies.get(REQUESTS - 1);
+        String summary = String.format(" (p50 %d ms, p95 %d ms, p99 %d ms, max %d ms ; %d doublées, %d nouveaux essais, %d requêtes reçues)",
+                p50, p95, p99, max, (long) hedges, (long) retries, stubRequests);
+
+        // Environ 8 % de pics et 4 % d'erreurs : des doublements et des essais, mais pas sur chaque demande
+        assertTrue(hedges >= 1, "Aucune requête doublée" + summary);
+        assertTrue(hedges < REQUESTS * 0.25, "Trop de requêtes doublées" + summary);
+        assertTrue(retries >= 1, "Aucun nouvel essai" + summary);
+        assertTrue(retries < REQUESTS * 0.15, "Trop de nouveaux essais" + summary);
+        // Chaque requête reçue par le serveur est une demande, un doublon ou un nouvel essai
+        assertTrue(stubRequests <= REQUESTS + hedges + retries, "Requêtes inattendues" + summary);
+
+        // Sans doublement, le p95 serait celui des pics (1,5 s)
+        assertTrue(p95 < SPIKE_LATENCY_MS / 2, "p95 trop élevé" + summary);
+        assertTrue(p99 < DEADLINE_MS, "p99 au-delà de l'échéance" + summary);
+        assertTrue(max < DEADLINE_MS, "Échéance dépassée" + summary);
+    }
+
+    private double count(String name) {
+        return meterRegistry.find(name).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private int stubRequests() {
+        return ((AtomicInteger) ReflectionTestUtils.getField(stub, "requests")).get();
+    }
+}
@@ -0,0 +1,181 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.service.QuizGeneratorAgent.ConceptInfo;
+import com.plateforme.educational.util.SentenceSegmenter;
+import com.plateforme.educational.util.SentenceSegmenter.Segmentation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Débit de ConceptExtractionEngine (phrases par seconde) sur un corpus de cours en français
+ * d'environ 1 Mo, comparé à l'extraction d'origine de QuizGeneratorAgent (motifs compilés à
+ * chaque phrase, recherche des indicateurs mot par mot), reprise ici telle quelle
+ * Mesure seulement, hors exécution par défaut (mvn test -Pbenchmark)
+ */
+@Tag("benchmark")
+class ConceptExtractionEngineTest {
+
+    private static final String[] DEFINITION_PATTERNS = {
+        "(.{3,50})\\s+(?:est|sont|désigne|représente|signifie|correspond à|se définit comme)\\s+(.{10,200})",
+        "(?:Un|Une|Le|La|Les)\\s+(.{3,40})\\s+(?:est|sont)\\s+(.{10,200})",
+        "(.{3,50})\\s*:\\s*(.{10,200})",
+        "(?:On appelle|On définit)\\s+(.{3,50})\\s+(.{10,200})",
+        "(.{3,50})\\s*=\\s*(.{10,200})"
+    };
+
+    private static final String[] INDICATORS = {
+        "permet", "est", "sont", "peut", "doit", "représente", "contient",
+        "utilise", "produit", "génère", "crée", "fonctionne", "sert",
+        "comprend", "inclut", "nécessite", "requiert", "implique",
+        "consiste", "caractérise", "définit", "décrit", "explique"
+    };
+
+    private static final String[] SUBJECTS = {
+        "Le protocole TCP", "Un routeur", "La couche réseau", "Le modèle OSI", "Une adresse IP",
+        "Le commutateur", "La table de routage", "Le pare-feu", "Un datagramme UDP", "Le serveur DNS",
+        "La mémoire cache", "Le système d'exploitation", "Un processus léger", "La base de données"
+    };
+    private static final String[] VERBS = {
+        "est", "désigne", "représente", "permet de gérer", "utilise", "correspond à", "contient",
+        "se définit comme", "nécessite", "assure", "transmet", "relie"
+    };
+    private static final String[] OBJECTS = {
+        "un mécanisme de transport fiable et orienté connexion entre deux hôtes",
+        "l'équipement qui relaie les paquets entre plusieurs réseaux distincts",
+        "une référence en sept couches pour décrire les communications",
+        "l'identifiant numérique attribué à chaque interface du réseau",
+        "la correspondance entre les noms de domaine et les adresses",
+        "un ensemble de règles qui filtrent le trafic entrant et sortant",
+        "les données les plus souvent lues afin de réduire la latence",
+        "la répartition du temps processeur entre les tâches en attente"
+    };
+
+    private final ConceptExtractionEngine engine = new ConceptExtractionEngine();
+
+    @Test
+    void sentencesPerSecondAgainstOriginalExtraction(TestReporter reporter) {
+        ReflectionTestUtils.setField(engine, "timeBudgetMs", 600_000L);
+        String content = corpus(new Random(20240701L), 1_000_000);
+
+        // Concepts : toutes les lignes sont examinées ; faits : le moteur s'arrête à MAX_FACTS faits
+        long conceptNanos = Long.MAX_VALUE;
+        long originalConceptNanos = Long.MAX_VALUE;
+        long factNanos = Long.MAX_VALUE;
+        long originalFactNanos = Long.MAX_VALUE;
+        Segmentation segmentation = null;
+        List<ConceptInfo> concepts = List.of();
+        List<String> facts = List.of();
+        int originalLines = 0;
+        int originalSentences = 0;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            segmentation = SentenceSegmenter.segment(content);
+            concepts = engine.extractConcepts(segmentation);
+            conceptNanos = Math.min(conceptNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            facts = engine.extractFacts(segmentation);
+            factNanos = Math.min(factNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            originalLines = originalConcepts(content);
+            originalConceptNanos = Math.min(originalConceptNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            originalSentences = originalFacts(content);
+            originalFactNanos = Math.min(originalFactNanos, System.nanoTime() - start);
+        }
+
+        assertFalse(concepts.isEmpty());
+        assertFalse(facts.isEmpty());
+        assertTrue(originalLines > 0 && originalSentences > 0);
+        int lines = segmentation.lines().size();
+        reporter.publishEntry("corpus", String.format("%d Ko, %d lignes", content.length() / 1024, lines));
+        reporter.publishEntry("concepts", String.format("moteur %d ms (%.0f phrases/s, %d concepts), origine %d ms (%.0f phrases/s)",
+                conceptNanos / 1_000_000, lines / (conceptNanos / 1e9), concepts.size(),
+                originalConceptNanos / 1_000_000, originalLines / (originalConceptNanos / 1e9)));
+        reporter.publishEntry("faits", String.format("moteur %d ms (%d faits), origine %d ms (%.0f phrases/s)",
+                factNanos / 1_000_000, facts.size(),
+                originalFactNanos / 1_000_000, originalSentences / (originalFactNanos / 1e9)));
+    }
+
+    private static String corpus(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 1_000);
+        while (text.length() < length) {
+            int sentences = 3 + random.nextInt(6);
+            for (int s = 0; s < sentences; s++) {
+                switch (random.nextInt(5)) {
+                    case 0 -> text.append("On appelle ").append(OBJECTS[random.nextInt(OBJECTS.length)]);
+                    case 1 -> text.append(SUBJECTS[random.nextInt(SUBJECTS.length)]).append(" : ")
+                            .append(OBJECTS[random.nextInt(OBJECTS.length)]);
+                    default -> text.append(SUBJECTS[random.nextInt(SUBJECTS.length)]).append(' ')
+                            .append(VERBS[random.nextInt(VERBS.length)]).append(' ')
+                            .append(OBJECTS[random.nextInt(OBJECTS.length)]);
+                }
+                text.append(random.nextInt(10) == 0 ? " (voir fig. 3). " : ". ");
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    // Extraction d'origine : nombre de phrases examinées
+
+    private static int originalConcepts(String content) {
+        List<String> definitions = new ArrayList<>();
+        Set<String> seenTerms = new HashSet<>();
+        String[] sentences = content.split("[.!?\\n]+");
+        for (String sentence : sentences) {
+            sentence = sentence.trim();
+            if (sentence.length() < 20 || sentence.length() > 500) continue;
+            for (String patternStr : DEFINITION_PATTERNS) {
+                Pattern pattern = Pattern.compile(patternStr, Pattern.CASE_INSENSITIVE);
+                Matcher matcher = pattern.matcher(sentence);
+                if (matcher.find() && matcher.groupCount() >= 2) {
+                    String term = matcher.group(1).replaceAll("^(Un|Une|Le|La|Les|L')\\s*", "").trim();
+                    String definition = matcher.group(2).trim();
+                    if (term.length() >= 3 && term.length() <= 50 && definition.length() >= 10
+                            && seenTerms.add(term.toLowerCase())) {
+                        definitions.add(definition);
+                    }
+                }
+            }
+        }
+        return sentences.length;
+    }
+
+    private static int originalFacts(String content) {
+        List<String> facts = new ArrayList<>();
+        Set<String> seenFacts = new HashSet<>();
+        String[] sentences = content.split("[.!?]+");
+        for (String sentence : sentences) {
+            sentence = sentence.trim();
+            if (sentence.length() >= 30 && sentence.length() <= 300 && containsInformation(sentence)
+                    && seenFacts.add(sentence.toLowerCase())) {
+                facts.add(sentence);
+            }
+        }
+        return sentences.length;
+    }
+
+    private static boolean containsInformation(String sentence) {
+        String lower = sentence.toLowerCase();
+        for (String indicator : INDICATORS) {
+            if (lower.contains(indicator)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,203 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.util.AhoCorasick;
+import com.plateforme.educational.util.SentenceSegmenter;
+import com.plateforme.educational.util.SentenceSegmenter.Segmentation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test différentiel : ContentAnalysis doit rendre les mêmes listes que les quatre extractions
+ * qu'elle remplace (LLMService avant l'analyse en un passage), reprises ici telles quelles
+ */
+class ContentAnalysisTest {
+
+    private static final AhoCorasick DEFINITION_MARKERS = new AhoCorasick(List.of(
+        "est défini comme", "se définit comme", "est un", "est une",
+        "représente", "désigne", "signifie", "correspond à",
+        "on appelle", "on définit", "c'est", "il s'agit de"
+    ));
+    private static final AhoCorasick TECHNICAL_MARKERS = new AhoCorasick(List.of(
+        "est un", "est une", "permet de", "consiste à", "définit",
+        "représente", "signifie", "désigne", "correspond à"
+    ));
+
+    private static final String[] WORDS = {
+        "Le", "la", "Un", "une", "protocole", "TCP", "réseau", "Réseau", "est", "un", "EST", "Est",
+        "défini", "comme", "se", "définit", "représente", "désigne", "signifie", "correspond", "à",
+        "On", "on", "appelle", "c'est", "C'est", "il", "s'agit", "de", "permet", "consiste",
+        "\"Routeur\"", "'Paquet'", "IPv4", "IPv6", "802.11", "HTTP/2", "Modèle", "OSI", "Élément",
+        "été", "données", "l'adresse", "Adresse-IP", "(voir", "fig.", "M.", "Dr.", "3.14", "v2.1",
+        "www.site.fr", "...", "?!", "!", ":", ";", ",", "-", "«", "»", "x", "Ab", "ÿ", "Œuvre", "ß"
+    };
+
+    private static final String[] SEPARATORS = {" ", " ", " ", " ", "  ", "\t", "\n", "\r\n", ". ", ".\n", "\u000B", "\f"};
+
+    @Test
+    void matchesOriginalExtractionOnExamples() {
+        assertSame("Le protocole TCP est un protocole de transport fiable.\nUn Routeur désigne l'équipement de relais.");
+        assertSame("On appelle \"socket\" l'extrémité d'une connexion. Il s'agit de la paire Adresse IP et port.");
+        assertSame("  Le Modèle OSI  permet de décrire les couches réseau\n\nLe Modèle OSI est une référence.  ");
+        assertSame("");
+        assertSame("court");
+    }
+
+    @Test
+    void matchesOriginalExtractionOnGeneratedText() {
+        Random random = new Random(20240620L);
+        for (int i = 0; i < 2_000; i++) {
+            assertSame(text(random, 1 + random.nextInt(120)));
+        }
+    }
+
+    /**
+     * Texte de cours de 1 Mo : mêmes listes que l'extraction d'origine
+     */
+    @Test
+    void matchesOriginalExtractionOnOneMegabyte() {
+        assertSame(oneMegabyte());
+    }
+
+    /**
+     * Durée de l'analyse d'un texte de 1 Mo, comparée à l'extraction d'origine
+     * Mesure seulement, hors exécution par défaut (mvn test -Pbenchmark)
+     */
+    @Test
+    @Tag("benchmark")
+    void oneMegabyteBenchmark(TestReporter reporter) {
+        String text = oneMegabyte();
+
+        ContentAnalysis analysis = null;
+        long analysisNanos = Long.MAX_VALUE;
+        long referenceNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            analysis = ContentAnalysis.of(text);
+            analysisNanos = Math.min(analysisNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            original(text);
+            referenceNanos = Math.min(referenceNanos, System.nanoTime() - start);
+        }
+
+        reporter.publishEntry("contenu", String.format("%d Ko (%d concepts, %d phrases, %d définitions, %d termes)",
+                text.length() / 1024, analysis.concepts().size(), analysis.sentences().size(),
+                analysis.definitions().size(), analysis.keyTerms().size()));
+        reporter.publishEntry("durée", String.format("analyse %d ms, extraction d'origine %d ms",
+                analysisNanos / 1_000_000, referenceNanos / 1_000_000));
+    }
+
+    private static String oneMegabyte() {
+        Random random = new Random(42L);
+        StringBuilder content = new StringBuilder(1_100_000);
+        while (content.length() < 1_000_000) {
+            content.append(text(random, 200));
+        }
+        return content.toString();
+    }
+
+    private static void assertSame(String content) {
+        assertEquals(original(content), ContentAnalysis.of(content), () -> "Texte: " + content);
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                text.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.append('\n').toString();
+    }
+
+    // Extraction d'origine
+
+    private static ContentAnalysis original(String content) {
+        Segmentation segmentation = SentenceSegmenter.segment(content);
+        return new ContentAnalysis(extractKeyConcepts(segmentation), extractImportantSentences(segmentation),
+                extractDefinitions(segmentation), extractKeyTerms(content));
+    }
+
+    private static List<String> extractDefinitions(Segmentation segmentation) {
+        List<String> definitions = new ArrayList<>();
+        for (CharSequence line : segmentation.lines()) {
+            if (line.length() > 30 && line.length() < 300 && DEFINITION_MARKERS.containsAny(line)) {
+                definitions.add(line.toString());
+            }
+        }
+        return definitions;
+    }
+
+    private static List<String> extractKeyTerms(String content) {
+        List<String> terms = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        if (content == null || content.isEmpty()) {
+            return terms;
+        }
+        String[] words = content.split("\\s+");
+        for (int i = 0; i < words.length; i++) {
+            String word = words[i].replaceAll("[^a-zA-ZÀ-ÿ0-9]", "");
+            if (word.isEmpty()) continue;
+            if (word.length() > 3) {
+                if (Character.isUpperCase(word.charAt(0)) && !seen.contains(word.toLowerCase())) {
+                    terms.add(word);
+                    seen.add(word.toLowerCase());
+                }
+            }
+            if (i < words.length - 1 && word.length() > 0) {
+                String nextWord = words[i + 1].replaceAll("[^a-zA-ZÀ-ÿ]", "");
+                if (!nextWord.isEmpty()) {
+                    String twoWords = word + " " + nextWord;
+                    if (twoWords.length() > 8 && !seen.contains(twoWords.toLowerCase())) {
+                        if (Character.isUpperCase(word.charAt(0))) {
+                            terms.add(twoWords);
+                            seen.add(twoWords.toLowerCase());
+                        }
+                    }
+                }
+            }
+        }
+        return terms;
+    }
+
+    private static List<String> extractKeyConcepts(Segmentation segmentation) {
+        List<String> concepts = new ArrayList<>();
+        for (CharSequence line : segmentation.lines()) {
+            if (line.length() > 20 && line.length() < 200 && TECHNICAL_MARKERS.containsAny(line)) {
+                concepts.add(line.toString());
+            }
+        }
+        String[] words = segmentation.text().split("\\s+");
+        for (String word : words) {
+            if (word == null || word.isEmpty()) continue;
+            if (word.length() > 3 && (Character.isUpperCase(word.charAt(0))
+                    || word.startsWith("\"") || word.startsWith("'"))) {
+                String cleanWord = word.replaceAll("[^a-zA-ZÀ-ÿ]", "");
+                if (cleanWord.length() > 3 && !concepts.contains(cleanWord)) {
+                    concepts.add(cleanWord);
+                }
+            }
+        }
+        return concepts;
+    }
+
+    private static List<String> extractImportantSentences(Segmentation segmentation) {
+        List<String> sentences = new ArrayList<>();
+        for (CharSequence sentence : segmentation.sentences()) {
+            if (sentence.length() > 30 && sentence.length() < 250) {
+                sentences.add(sentence.toString());
+            }
+        }
+        return sentences;
+    }
+}
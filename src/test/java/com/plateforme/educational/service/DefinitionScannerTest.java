@@ -0,0 +1,119 @@
+package com.plateforme.educational.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test différentiel : DefinitionScanner doit rendre exactement ce que rendait Matcher.find()
+ * sur les cinq motifs qu'il remplace, pris dans l'ordre
+ */
+class DefinitionScannerTest {
+
+    // Motifs d'origine (ConceptExtractionEngine avant le scanner)
+    private static final Pattern[] ORIGINAL_PATTERNS = {
+        Pattern.compile("(.{3,50})\\s+(?:est|sont|désigne|représente|signifie|correspond à|se définit comme)\\s+(.{10,200})", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("(?:Un|Une|Le|La|Les)\\s+(.{3,40})\\s+(?:est|sont)\\s+(.{10,200})", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("(.{3,50})\\s*:\\s*(.{10,200})", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("(?:On appelle|On définit)\\s+(.{3,50})\\s+(.{10,200})", Pattern.CASE_INSENSITIVE),
+        Pattern.compile("(.{3,50})\\s*=\\s*(.{10,200})", Pattern.CASE_INSENSITIVE)
+    };
+
+    private static final String[] WORDS = {
+        "est", "EST", "Est", "sont", "désigne", "DÉSIGNE", "représente", "signifie", "correspond à",
+        "correspond  à", "se définit comme", "Un", "une", "LE", "la", "Les", "On appelle", "on définit",
+        "On  appelle", ":", " : ", "=", "==", "protocole", "TCP", "réseau", "x", "ab", "données",
+        "l'adresse", "Unix", "lesté", "estimé", "a=b", "clé:valeur", "{\"k\":1}", "\t", "\n", "\r\n",
+        "\u2028", "  ", "...", "(v2.1)", "É", "ÉTAT", "éa"
+    };
+
+    private final DefinitionScanner scanner = new DefinitionScanner();
+
+    @Test
+    void matchesOriginalPatternsOnExamples() {
+        assertSame("Le protocole TCP est un protocole de transport fiable et orienté connexion");
+        assertSame("On appelle routeur l'équipement qui relaie les paquets entre réseaux");
+        assertSame("Adresse IP : identifiant numérique attribué à chaque interface");
+        assertSame("débit = quantité de données transmises par seconde");
+        assertSame("Une variable est un emplacement mémoire nommé\nqui contient une valeur");
+        assertSame("trop court");
+        assertSame("");
+    }
+
+    @Test
+    void matchesOriginalPatternsOnGeneratedSentences() {
+        Random random = new Random(20240615L);
+        int compared = 0;
+        int withDefinition = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String sentence = sentence(random);
+            List<String> expected = original(sentence);
+            assertEquals(expected, scanned(sentence), () -> "Phrase: " + escape(sentence));
+            compared++;
+            if (!expected.isEmpty()) {
+                withDefinition++;
+            }
+        }
+        // Le générateur doit produire assez de correspondances pour que la comparaison ait un sens
+        assertTrue(withDefinition > compared / 10, "Trop peu de définitions générées: " + withDefinition);
+    }
+
+    @Test
+    void staysLinearOnLongLines() {
+        // Ligne de code ou JSON minifié : de nombreux ':' et '=' sans blanc, 20 000 caractères
+        String line = "{\"k\":\"v=1\",".repeat(2_000);
+        long start = System.nanoTime();
+        List<String> found = scanned(line);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(original(line), found);
+        assertTrue(elapsedMillis < 1_000, "Scanner trop lent: " + elapsedMillis + " ms");
+    }
+
+    private void assertSame(String sentence) {
+        assertEquals(original(sentence), scanned(sentence), () -> "Phrase: " + escape(sentence));
+    }
+
+    private static List<String> original(String sentence) {
+        List<String> definitions = new ArrayList<>();
+        for (Pattern pattern : ORIGINAL_PATTERNS) {
+            Matcher matcher = pattern.matcher(sentence);
+            if (matcher.find()) {
+                definitions.add(matcher.group(1) + " | " + matcher.group(2));
+            }
+        }
+        return definitions;
+    }
+
+    private List<String> scanned(String sentence) {
+        List<String> definitions = new ArrayList<>();
+        scanner.scan(sentence, (term, definition) -> definitions.add(term + " | " + definition));
+        return definitions;
+    }
+
+    private static String sentence(Random random) {
+        StringBuilder sentence = new StringBuilder();
+        int words = 1 + random.nextInt(40);
+        for (int w = 0; w < words; w++) {
+            if (w > 0 && random.nextInt(4) != 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        // Quelques phrases très longues, au-delà des bornes {50} et {200}
+        if (random.nextInt(20) == 0) {
+            sentence.append(" ").append("z".repeat(random.nextInt(250)));
+        }
+        return sentence.toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t").replace("\u2028", "\\u2028");
+    }
+}
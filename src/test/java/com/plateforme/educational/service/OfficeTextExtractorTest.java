@@ -0,0 +1,147 @@
+package com.plateforme.educational.service;
+
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFTextBox;
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Extraction des documents Office générés dans le test (POI, modèle objet), puis relus en flux
+ */
+class OfficeTextExtractorTest {
+
+    private final OfficeTextExtractor extractor = new OfficeTextExtractor();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void extractsDocxParagraphsInOrder() throws IOException {
+        Path file = docx(List.of("Le protocole TCP est un protocole fiable.", "Un routeur désigne l'équipement de relais.", ""));
+
+        String text = extractor.extract(file.toString(), "cours.docx");
+
+        assertEquals("Le protocole TCP est un protocole fiable.\nUn routeur désigne l'équipement de relais.\n\n", text);
+    }
+
+    @Test
+    void extractsPptxSlidesInNumericOrder() throws IOException {
+        Path file = dir.resolve("cours.pptx");
+        try (XMLSlideShow show = new XMLSlideShow(); OutputStream out = Files.newOutputStream(file)) {
+            // slide10.xml doit venir après slide2.xml
+            for (int i = 1; i <= 11; i++) {
+                XSLFSlide slide = show.createSlide();
+                XSLFTextBox box = slide.createTextBox();
+                box.setText("Diapositive " + i);
+            }
+            show.write(out);
+        }
+
+        String text = extractor.extract(file.toString(), "cours.pptx");
+
+        List<String> lines = text.lines().filter(line -> !line.isBlank()).toList();
+        assertEquals(11, lines.size());
+        for (int i = 1; i <= 11; i++) {
+            assertEquals("Diapositive " + i, lines.get(i - 1));
+        }
+    }
+
+    @Test
+    void extractsXlsxRowsWithTabSeparatedCells() throws IOException {
+        Path file = dir.resolve("notes.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            XSSFSheet sheet = workbook.createSheet("Notes");
+            XSSFRow header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Concept");
+            header.createCell(1).setCellValue("Définition");
+            XSSFRow row = sheet.createRow(1);
+            row.createCell(0).setCellValue("TCP");
+            row.createCell(1).setCellValue("Transport fiable");
+            row.createCell(2).setCellValue(4);
+            workbook.write(out);
+        }
+
+        String text = extractor.extract(file.toString(), "notes.xlsx");
+
+        assertEquals("Concept\tDéfinition\nTCP\tTransport fiable\t4\n\n", text);
+    }
+
+    @Test
+    void ignoresUnsupportedExtensions() throws IOException {
+        Path file = docx(List.of("Texte"));
+
+        assertFalse(extractor.supports("cours.pdf"));
+        assertEquals("", extractor.extract(file.toString(), "cours.odt"));
+    }
+
+    /**
+     * Débit de l'extraction en flux comparé à l'extracteur POI sur modèle objet, sur un document
+     * de 20 000 paragraphes ; les deux doivent rendre le même texte
+     * Mesure seulement, hors exécution par défaut (mvn test -Pbenchmark)
+     */
+    @Test
+    @Tag("benchmark")
+    void streamingExtractionThroughput(TestReporter reporter) throws IOException {
+        List<String> paragraphs = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            paragraphs.add("Paragraphe " + i + " : le protocole TCP garantit la livraison ordonnée des segments.");
+        }
+        Path file = docx(paragraphs);
+        long bytes = Files.size(file);
+
+        String streamed = "";
+        String dom = "";
+        long streamingNanos = Long.MAX_VALUE;
+        long domNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            streamed = extractor.extract(file.toString(), "gros.docx");
+            streamingNanos = Math.min(streamingNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            try (InputStream in = Files.newInputStream(file);
+                 XWPFWordExtractor reference = new XWPFWordExtractor(new XWPFDocument(in))) {
+                dom = reference.getText();
+            }
+            domNanos = Math.min(domNanos, System.nanoTime() - start);
+        }
+
+        assertEquals(paragraphs.size(), streamed.lines().count());
+        assertEquals(dom.strip(), streamed.strip());
+        assertTrue(streamed.contains("Paragraphe 19999 "));
+        reporter.publishEntry("docx", String.format("%d Ko, %d paragraphes : flux %d ms (%.1f Mo/s), modèle objet %d ms",
+                bytes / 1024, paragraphs.size(), streamingNanos / 1_000_000,
+                bytes / 1e6 / (streamingNanos / 1e9), domNanos / 1_000_000));
+    }
+
+    private Path docx(List<String> paragraphs) throws IOException {
+        Path file = dir.resolve("cours-" + paragraphs.size() + ".docx");
+        try (XWPFDocument document = new XWPFDocument(); OutputStream out = Files.newOutputStream(file)) {
+            for (String paragraph : paragraphs) {
+                document.createParagraph().createRun().setText(paragraph);
+            }
+            document.write(out);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,177 @@
+package com.plateforme.educational.service;
+
+import com.plateforme.educational.entity.Course;
+import com.plateforme.educational.service.CourseKnowledgeService.CourseKnowledge;
+import com.plateforme.educational.service.QuizGeneratorAgent.ConceptInfo;
+import com.plateforme.educational.service.QuizGeneratorAgent.FactInfo;
+import com.plateforme.educational.service.QuizGeneratorAgent.GeneratedQuestion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Génération d'un quiz sur un grand cours : familles de questions générées l'une après l'autre
+ * (generateByType), comparées au chemin fork-join retiré (une tâche par famille), repris ici.
+ * Le travail par quiz est borné par quiz.max-questions et les 20 faits retenus, pas par la taille du cours
+ * (les concepts et leurs voisins sont lus par indice) : quelques centaines de microsecondes au plus.
+ * Mesure seulement, hors exécution par défaut (mvn test -Pbenchmark)
+ */
+@Tag("benchmark")
+class QuizGeneratorAgentTest {
+
+    private static final int CONCEPTS = 20_000;
+    private static final int FACTS = 5_000;
+    // quiz.max-questions ; generate() ne garde que 20 faits par quiz
+    private static final int QUESTIONS = 50;
+    private static final int FACTS_PER_QUIZ = 20;
+    private static final int ROUNDS = 2_000;
+
+    private static final String[] WORDS = {
+        "protocole", "transport", "fiable", "connexion", "routeur", "paquet", "réseau", "adresse",
+        "couche", "trame", "commutateur", "table", "routage", "pare-feu", "filtrage", "latence",
+        "mémoire", "cache", "processus", "ordonnancement", "serveur", "domaine", "requête", "réponse"
+    };
+
+    @Test
+    void sequentialFamiliesAgainstForkJoin(TestReporter reporter) throws Exception {
+        Random random = new Random(20240703L);
+        CourseKnowledge knowledge = knowledge(random);
+        QuizGeneratorAgent agent = new QuizGeneratorAgent(new CourseKnowledgeService(null, null, null, null, null) {
+            @Override
+            public CourseKnowledge load(Course course) {
+                return knowledge;
+            }
+        }, new SimpleMeterRegistry());
+        Course course = new Course();
+        course.setId(1L);
+        course.setTitle("Réseaux");
+
+        Method generateByType = QuizGeneratorAgent.class.getDeclaredMethod("generateByType",
+                List.class, List.class, List.class, String.class, int.class, Random.class);
+        generateByType.setAccessible(true);
+        Class<?> questionType = Class.forName(QuizGeneratorAgent.class.getName() + "$QuestionType");
+        Method generateBatch = QuizGeneratorAgent.class.getDeclaredMethod("generateBatch",
+                questionType, List.class, List.class, String.class, int.class, Random.class);
+        generateBatch.setAccessible(true);
+        List<?> types = Arrays.asList(questionType.getEnumConstants());
+        List<FactInfo> facts = knowledge.facts().subList(0, FACTS_PER_QUIZ);
+        int perType = QUESTIONS / 4 + 1;
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            long sequentialNanos = Long.MAX_VALUE;
+            long forkJoinNanos = Long.MAX_VALUE;
+            long quizNanos = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    generateByType.invoke(agent, types, knowledge.concepts(), facts, "ADVANCED", perType, new Random(i));
+                }
+                sequentialNanos = Math.min(sequentialNanos, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    forkJoin(pool, generateBatch, agent, types, knowledge.concepts(), facts, perType, new Random(i));
+                }
+                forkJoinNanos = Math.min(forkJoinNanos, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (int i = 0; i < ROUNDS; i++) {
+                    agent.generateQuestions(course, "ADVANCED", QUESTIONS, i, true);
+                }
+                quizNanos = Math.min(quizNanos, System.nanoTime() - start);
+            }
+
+            // Même graine, mêmes questions par les deux chemins
+            assertEquals(texts(generateByType.invoke(agent, types, knowledge.concepts(), facts, "ADVANCED", perType, new Random(7L))),
+                    texts(forkJoin(pool, generateBatch, agent, types, knowledge.concepts(), facts, perType, new Random(7L))));
+
+            reporter.publishEntry("cours", String.format("%d concepts, %d faits ; quiz de %d questions (ADVANCED, %d familles), %d CPU",
+                    CONCEPTS, FACTS, QUESTIONS, types.size(), pool.getParallelism()));
+            reporter.publishEntry("familles", String.format("séquentiel %.1f µs/quiz, fork-join %.1f µs/quiz",
+                    sequentialNanos / 1e3 / ROUNDS, forkJoinNanos / 1e3 / ROUNDS));
+            reporter.publishEntry("quiz complet", String.format("%.1f µs/quiz", quizNanos / 1e3 / ROUNDS));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Chemin retiré : graines tirées dans l'ordre des familles, une tâche par famille, fusion dans l'ordre
+     */
+    private static List<List<GeneratedQuestion>> forkJoin(ForkJoinPool pool, Method generateBatch, QuizGeneratorAgent agent,
+                                                          List<?> types, List<ConceptInfo> concepts, List<FactInfo> facts,
+                                                          int perType, Random random) {
+        long[] seeds = new long[types.size()];
+        for (int t = 0; t < seeds.length; t++) {
+            seeds[t] = random.nextLong();
+        }
+        List<ForkJoinTask<List<GeneratedQuestion>>> tasks = new ArrayList<>();
+        for (int t = 0; t < types.size(); t++) {
+            Object type = types.get(t);
+            Random taskRandom = new Random(seeds[t]);
+            tasks.add(pool.submit(() -> batch(generateBatch, agent, type, concepts, facts, perType, taskRandom)));
+        }
+        List<List<GeneratedQuestion>> batches = new ArrayList<>();
+        for (ForkJoinTask<List<GeneratedQuestion>> task : tasks) {
+            batches.add(task.join());
+        }
+        return batches;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<GeneratedQuestion> batch(Method generateBatch, QuizGeneratorAgent agent, Object type,
+                                                 List<ConceptInfo> concepts, List<FactInfo> facts, int perType, Random random)
+            throws ReflectiveOperationException {
+        return (List<GeneratedQuestion>) generateBatch.invoke(agent, type, concepts, facts, "ADVANCED", perType, random);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> texts(Object batches) {
+        List<String> texts = new ArrayList<>();
+        for (List<GeneratedQuestion> batch : (List<List<GeneratedQuestion>>) batches) {
+            for (GeneratedQuestion question : batch) {
+                texts.add(question.question + " " + question.options + " " + question.correctIndex);
+            }
+        }
+        return texts;
+    }
+
+    private static CourseKnowledge knowledge(Random random) {
+        List<ConceptInfo> concepts = new ArrayList<>(CONCEPTS);
+        for (int i = 0; i < CONCEPTS; i++) {
+            String term = WORDS[random.nextInt(WORDS.length)] + " " + i;
+            ConceptInfo concept = new ConceptInfo(term, sentence(random, 20), sentence(random, 30), "course");
+            concept.neighbours = new int[] {random.nextInt(CONCEPTS), random.nextInt(CONCEPTS), random.nextInt(CONCEPTS)};
+            concepts.add(concept);
+        }
+        List<FactInfo> facts = new ArrayList<>(FACTS);
+        for (int i = 0; i < FACTS; i++) {
+            int cited = random.nextInt(CONCEPTS);
+            FactInfo fact = new FactInfo("Le " + concepts.get(cited).term + " est " + sentence(random, 15));
+            fact.conceptIndex = cited;
+            facts.add(fact);
+        }
+        return new CourseKnowledge(concepts, facts);
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) sentence.append(' ');
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+}